@@ -14,6 +14,8 @@ public class V1FlinkCluster {
     private V1ObjectMeta metadata = null;
     @SerializedName("spec")
     private V1FlinkClusterSpec spec = null;
+    @SerializedName("status")
+    private V1FlinkClusterStatus status = null;
 
     public V1FlinkCluster() {
     }
@@ -65,19 +67,27 @@ public class V1FlinkCluster {
         this.spec = spec;
     }
 
+    public V1FlinkClusterStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(V1FlinkClusterStatus status) {
+        this.status = status;
+    }
+
     public boolean equals(Object o) {
         if (this == o) {
             return true;
         } else if (o != null && this.getClass() == o.getClass()) {
             V1FlinkCluster V1FlinkCluster = (V1FlinkCluster)o;
-            return Objects.equals(this.apiVersion, V1FlinkCluster.apiVersion) && Objects.equals(this.kind, V1FlinkCluster.kind) && Objects.equals(this.metadata, V1FlinkCluster.metadata) && Objects.equals(this.spec, V1FlinkCluster.spec);
+            return Objects.equals(this.apiVersion, V1FlinkCluster.apiVersion) && Objects.equals(this.kind, V1FlinkCluster.kind) && Objects.equals(this.metadata, V1FlinkCluster.metadata) && Objects.equals(this.spec, V1FlinkCluster.spec) && Objects.equals(this.status, V1FlinkCluster.status);
         } else {
             return false;
         }
     }
 
     public int hashCode() {
-        return Objects.hash(this.apiVersion, this.kind, this.metadata, this.spec);
+        return Objects.hash(this.apiVersion, this.kind, this.metadata, this.spec, this.status);
     }
 
     public String toString() {
@@ -86,6 +96,7 @@ public class V1FlinkCluster {
                 "    kind: " + this.toIndentedString(this.kind) + "\n" +
                 "    metadata: " + this.toIndentedString(this.metadata) + "\n" +
                 "    spec: " + this.toIndentedString(this.spec) + "\n" +
+                "    status: " + this.toIndentedString(this.status) + "\n" +
                 "}";
     }
 
@@ -61,6 +61,16 @@ public class V1FlinkClusterSpec {
     private String sidecarSavepoint;
     @SerializedName("sidecarParallelism")
     private Integer sidecarParallelism;
+    @SerializedName("taskmanagerAutoscaling")
+    private Boolean taskmanagerAutoscaling;
+    @SerializedName("taskmanagerMinReplicas")
+    private Integer taskmanagerMinReplicas;
+    @SerializedName("taskmanagerMaxReplicas")
+    private Integer taskmanagerMaxReplicas;
+    @SerializedName("taskmanagerScaleCooldown")
+    private Integer taskmanagerScaleCooldown;
+    @SerializedName("suspended")
+    private Boolean suspended;
 
     public String getPullPolicy() {
         return pullPolicy;
@@ -269,6 +279,51 @@ public class V1FlinkClusterSpec {
         return this;
     }
 
+    public Boolean getTaskmanagerAutoscaling() {
+        return taskmanagerAutoscaling;
+    }
+
+    public V1FlinkClusterSpec setTaskmanagerAutoscaling(Boolean taskmanagerAutoscaling) {
+        this.taskmanagerAutoscaling = taskmanagerAutoscaling;
+        return this;
+    }
+
+    public Integer getTaskmanagerMinReplicas() {
+        return taskmanagerMinReplicas;
+    }
+
+    public V1FlinkClusterSpec setTaskmanagerMinReplicas(Integer taskmanagerMinReplicas) {
+        this.taskmanagerMinReplicas = taskmanagerMinReplicas;
+        return this;
+    }
+
+    public Integer getTaskmanagerMaxReplicas() {
+        return taskmanagerMaxReplicas;
+    }
+
+    public V1FlinkClusterSpec setTaskmanagerMaxReplicas(Integer taskmanagerMaxReplicas) {
+        this.taskmanagerMaxReplicas = taskmanagerMaxReplicas;
+        return this;
+    }
+
+    public Integer getTaskmanagerScaleCooldown() {
+        return taskmanagerScaleCooldown;
+    }
+
+    public V1FlinkClusterSpec setTaskmanagerScaleCooldown(Integer taskmanagerScaleCooldown) {
+        this.taskmanagerScaleCooldown = taskmanagerScaleCooldown;
+        return this;
+    }
+
+    public Boolean getSuspended() {
+        return suspended;
+    }
+
+    public V1FlinkClusterSpec setSuspended(Boolean suspended) {
+        this.suspended = suspended;
+        return this;
+    }
+
     public List<V1FlinkClusterEnvVar> getJobmanagerEnvironmentVariables() {
         return jobmanagerEnvironmentVariables;
     }
@@ -318,12 +373,17 @@ public class V1FlinkClusterSpec {
                 Objects.equals(sidecarArguments, that.sidecarArguments) &&
                 Objects.equals(sidecarServiceAccount, that.sidecarServiceAccount) &&
                 Objects.equals(sidecarSavepoint, that.sidecarSavepoint) &&
-                Objects.equals(sidecarParallelism, that.sidecarParallelism);
+                Objects.equals(sidecarParallelism, that.sidecarParallelism) &&
+                Objects.equals(taskmanagerAutoscaling, that.taskmanagerAutoscaling) &&
+                Objects.equals(taskmanagerMinReplicas, that.taskmanagerMinReplicas) &&
+                Objects.equals(taskmanagerMaxReplicas, that.taskmanagerMaxReplicas) &&
+                Objects.equals(taskmanagerScaleCooldown, that.taskmanagerScaleCooldown) &&
+                Objects.equals(suspended, that.suspended);
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(clusterName, environment, pullSecrets, pullPolicy, flinkImage, serviceMode, jobmanagerCpus, jobmanagerMemory, jobmanagerStorageSize, jobmanagerStorageClass, jobmanagerServiceAccount, jobmanagerEnvironmentVariables, taskmanagerCpus, taskmanagerMemory, taskmanagerStorageSize, taskmanagerStorageClass, taskmanagerReplicas, taskmanagerTaskSlots, taskmanagerServiceAccount, taskmanagerEnvironmentVariables, sidecarImage, sidecarClassName, sidecarJarPath, sidecarArguments, sidecarServiceAccount, sidecarSavepoint, sidecarParallelism);
+        return Objects.hash(clusterName, environment, pullSecrets, pullPolicy, flinkImage, serviceMode, jobmanagerCpus, jobmanagerMemory, jobmanagerStorageSize, jobmanagerStorageClass, jobmanagerServiceAccount, jobmanagerEnvironmentVariables, taskmanagerCpus, taskmanagerMemory, taskmanagerStorageSize, taskmanagerStorageClass, taskmanagerReplicas, taskmanagerTaskSlots, taskmanagerServiceAccount, taskmanagerEnvironmentVariables, sidecarImage, sidecarClassName, sidecarJarPath, sidecarArguments, sidecarServiceAccount, sidecarSavepoint, sidecarParallelism, taskmanagerAutoscaling, taskmanagerMinReplicas, taskmanagerMaxReplicas, taskmanagerScaleCooldown, suspended);
     }
 
     @Override
@@ -356,6 +416,11 @@ public class V1FlinkClusterSpec {
                 ", sidecarServiceAccount='" + sidecarServiceAccount + '\'' +
                 ", sidecarSavepoint='" + sidecarSavepoint + '\'' +
                 ", sidecarParallelism=" + sidecarParallelism +
+                ", taskmanagerAutoscaling=" + taskmanagerAutoscaling +
+                ", taskmanagerMinReplicas=" + taskmanagerMinReplicas +
+                ", taskmanagerMaxReplicas=" + taskmanagerMaxReplicas +
+                ", taskmanagerScaleCooldown=" + taskmanagerScaleCooldown +
+                ", suspended=" + suspended +
                 '}';
     }
 }
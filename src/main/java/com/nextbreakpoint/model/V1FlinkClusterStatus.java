@@ -0,0 +1,234 @@
+package com.nextbreakpoint.model;
+
+import com.google.gson.annotations.SerializedName;
+
+import java.util.Objects;
+
+public class V1FlinkClusterStatus {
+    @SerializedName("phase")
+    private String phase = null;
+    @SerializedName("observedGeneration")
+    private Long observedGeneration = null;
+    @SerializedName("lastReconcileDuration")
+    private Long lastReconcileDuration = null;
+    @SerializedName("jobId")
+    private String jobId = null;
+    @SerializedName("lastSavepoint")
+    private String lastSavepoint = null;
+    @SerializedName("lastSavepointOrigin")
+    private String lastSavepointOrigin = null;
+    @SerializedName("savepointJobId")
+    private String savepointJobId = null;
+    @SerializedName("savepointTriggerId")
+    private String savepointTriggerId = null;
+    @SerializedName("savepointTimestamp")
+    private Long savepointTimestamp = null;
+    @SerializedName("savepointStatus")
+    private String savepointStatus = null;
+    @SerializedName("savepointOrigin")
+    private String savepointOrigin = null;
+    @SerializedName("taskmanagerReplicas")
+    private Integer taskmanagerReplicas = null;
+    @SerializedName("labelSelector")
+    private String labelSelector = null;
+    @SerializedName("jobmanagerReady")
+    private Boolean jobmanagerReady = null;
+    @SerializedName("taskmanagerReadyReplicas")
+    private Integer taskmanagerReadyReplicas = null;
+    @SerializedName("podRestarts")
+    private Integer podRestarts = null;
+
+    public String getPhase() {
+        return phase;
+    }
+
+    public V1FlinkClusterStatus setPhase(String phase) {
+        this.phase = phase;
+        return this;
+    }
+
+    public Long getObservedGeneration() {
+        return observedGeneration;
+    }
+
+    public V1FlinkClusterStatus setObservedGeneration(Long observedGeneration) {
+        this.observedGeneration = observedGeneration;
+        return this;
+    }
+
+    public Long getLastReconcileDuration() {
+        return lastReconcileDuration;
+    }
+
+    public V1FlinkClusterStatus setLastReconcileDuration(Long lastReconcileDuration) {
+        this.lastReconcileDuration = lastReconcileDuration;
+        return this;
+    }
+
+    public String getJobId() {
+        return jobId;
+    }
+
+    public V1FlinkClusterStatus setJobId(String jobId) {
+        this.jobId = jobId;
+        return this;
+    }
+
+    public String getLastSavepoint() {
+        return lastSavepoint;
+    }
+
+    public V1FlinkClusterStatus setLastSavepoint(String lastSavepoint) {
+        this.lastSavepoint = lastSavepoint;
+        return this;
+    }
+
+    public String getLastSavepointOrigin() {
+        return lastSavepointOrigin;
+    }
+
+    public V1FlinkClusterStatus setLastSavepointOrigin(String lastSavepointOrigin) {
+        this.lastSavepointOrigin = lastSavepointOrigin;
+        return this;
+    }
+
+    public String getSavepointJobId() {
+        return savepointJobId;
+    }
+
+    public V1FlinkClusterStatus setSavepointJobId(String savepointJobId) {
+        this.savepointJobId = savepointJobId;
+        return this;
+    }
+
+    public String getSavepointTriggerId() {
+        return savepointTriggerId;
+    }
+
+    public V1FlinkClusterStatus setSavepointTriggerId(String savepointTriggerId) {
+        this.savepointTriggerId = savepointTriggerId;
+        return this;
+    }
+
+    public Long getSavepointTimestamp() {
+        return savepointTimestamp;
+    }
+
+    public V1FlinkClusterStatus setSavepointTimestamp(Long savepointTimestamp) {
+        this.savepointTimestamp = savepointTimestamp;
+        return this;
+    }
+
+    public String getSavepointStatus() {
+        return savepointStatus;
+    }
+
+    public V1FlinkClusterStatus setSavepointStatus(String savepointStatus) {
+        this.savepointStatus = savepointStatus;
+        return this;
+    }
+
+    public String getSavepointOrigin() {
+        return savepointOrigin;
+    }
+
+    public V1FlinkClusterStatus setSavepointOrigin(String savepointOrigin) {
+        this.savepointOrigin = savepointOrigin;
+        return this;
+    }
+
+    public Integer getTaskmanagerReplicas() {
+        return taskmanagerReplicas;
+    }
+
+    public V1FlinkClusterStatus setTaskmanagerReplicas(Integer taskmanagerReplicas) {
+        this.taskmanagerReplicas = taskmanagerReplicas;
+        return this;
+    }
+
+    public String getLabelSelector() {
+        return labelSelector;
+    }
+
+    public V1FlinkClusterStatus setLabelSelector(String labelSelector) {
+        this.labelSelector = labelSelector;
+        return this;
+    }
+
+    public Boolean getJobmanagerReady() {
+        return jobmanagerReady;
+    }
+
+    public V1FlinkClusterStatus setJobmanagerReady(Boolean jobmanagerReady) {
+        this.jobmanagerReady = jobmanagerReady;
+        return this;
+    }
+
+    public Integer getTaskmanagerReadyReplicas() {
+        return taskmanagerReadyReplicas;
+    }
+
+    public V1FlinkClusterStatus setTaskmanagerReadyReplicas(Integer taskmanagerReadyReplicas) {
+        this.taskmanagerReadyReplicas = taskmanagerReadyReplicas;
+        return this;
+    }
+
+    public Integer getPodRestarts() {
+        return podRestarts;
+    }
+
+    public V1FlinkClusterStatus setPodRestarts(Integer podRestarts) {
+        this.podRestarts = podRestarts;
+        return this;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        V1FlinkClusterStatus that = (V1FlinkClusterStatus) o;
+        return Objects.equals(phase, that.phase) &&
+                Objects.equals(observedGeneration, that.observedGeneration) &&
+                Objects.equals(lastReconcileDuration, that.lastReconcileDuration) &&
+                Objects.equals(jobId, that.jobId) &&
+                Objects.equals(lastSavepoint, that.lastSavepoint) &&
+                Objects.equals(lastSavepointOrigin, that.lastSavepointOrigin) &&
+                Objects.equals(savepointJobId, that.savepointJobId) &&
+                Objects.equals(savepointTriggerId, that.savepointTriggerId) &&
+                Objects.equals(savepointTimestamp, that.savepointTimestamp) &&
+                Objects.equals(savepointStatus, that.savepointStatus) &&
+                Objects.equals(savepointOrigin, that.savepointOrigin) &&
+                Objects.equals(taskmanagerReplicas, that.taskmanagerReplicas) &&
+                Objects.equals(labelSelector, that.labelSelector) &&
+                Objects.equals(jobmanagerReady, that.jobmanagerReady) &&
+                Objects.equals(taskmanagerReadyReplicas, that.taskmanagerReadyReplicas) &&
+                Objects.equals(podRestarts, that.podRestarts);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(phase, observedGeneration, lastReconcileDuration, jobId, lastSavepoint, lastSavepointOrigin, savepointJobId, savepointTriggerId, savepointTimestamp, savepointStatus, savepointOrigin, taskmanagerReplicas, labelSelector, jobmanagerReady, taskmanagerReadyReplicas, podRestarts);
+    }
+
+    @Override
+    public String toString() {
+        return "V1FlinkClusterStatus {" +
+                "phase='" + phase + '\'' +
+                ", observedGeneration=" + observedGeneration +
+                ", lastReconcileDuration=" + lastReconcileDuration +
+                ", jobId='" + jobId + '\'' +
+                ", lastSavepoint='" + lastSavepoint + '\'' +
+                ", lastSavepointOrigin='" + lastSavepointOrigin + '\'' +
+                ", savepointJobId='" + savepointJobId + '\'' +
+                ", savepointTriggerId='" + savepointTriggerId + '\'' +
+                ", savepointTimestamp=" + savepointTimestamp +
+                ", savepointStatus='" + savepointStatus + '\'' +
+                ", savepointOrigin='" + savepointOrigin + '\'' +
+                ", taskmanagerReplicas=" + taskmanagerReplicas +
+                ", labelSelector='" + labelSelector + '\'' +
+                ", jobmanagerReady=" + jobmanagerReady +
+                ", taskmanagerReadyReplicas=" + taskmanagerReadyReplicas +
+                ", podRestarts=" + podRestarts +
+                '}';
+    }
+}
@@ -1,7 +1,10 @@
 package com.nextbreakpoint
 
 import com.google.common.io.ByteStreams.copy
+import com.codahale.metrics.MetricRegistry
 import com.nextbreakpoint.flinkclient.api.FlinkApi
+import com.nextbreakpoint.model.ApiRateLimits
+import com.nextbreakpoint.operator.ApiRateLimitInterceptor
 import io.kubernetes.client.ApiClient
 import io.kubernetes.client.PortForward
 import io.kubernetes.client.models.V1Pod
@@ -30,11 +33,12 @@ object CommandUtils {
         return flinkApi
     }
 
-    fun createKubernetesClient(kubeConfig: String?): ApiClient? {
+    fun createKubernetesClient(kubeConfig: String?, rateLimits: ApiRateLimits = ApiRateLimits(), registry: MetricRegistry? = null): ApiClient? {
         val client = if (kubeConfig?.isNotBlank() == true) Config.fromConfig(FileInputStream(File(kubeConfig))) else Config.fromCluster()
         client.httpClient.setConnectTimeout(20000, TimeUnit.MILLISECONDS)
         client.httpClient.setWriteTimeout(30000, TimeUnit.MILLISECONDS)
         client.httpClient.setReadTimeout(30000, TimeUnit.MILLISECONDS)
+        client.httpClient.interceptors().add(ApiRateLimitInterceptor(rateLimits, registry))
 //            client.isDebugging = true
         return client
     }
@@ -139,9 +139,19 @@ class ControllerVerticle : AbstractVerticle() {
         }
 
         mainRouter.post("/cluster/create").handler { context ->
-            vertx.rxExecuteBlocking<String> { future ->
-                future.complete(ClusterCreateHandler.execute("flink-controller", Gson().fromJson(context.bodyAsString, ClusterConfig::class.java)))
-            }.subscribe({ output ->
+            val waitReady = context.request().getParam("waitReady")?.toBoolean() ?: false
+            val waitTimeout = context.request().getParam("waitTimeout")?.toLongOrNull() ?: 100
+
+            vertx.rxExecuteBlocking<String>({ future ->
+                val startTime = System.currentTimeMillis()
+                val clusterConfig = Gson().fromJson(context.bodyAsString, ClusterConfig::class.java)
+                val output = ClusterCreateHandler.execute("flink-controller", clusterConfig)
+                if (waitReady) {
+                    future.complete(ClusterReadyHandler.execute(portForward, kubeConfig != null, clusterConfig, startTime, waitTimeout * 1000))
+                } else {
+                    future.complete(output)
+                }
+            }, false).subscribe({ output ->
                 context.response().setStatusCode(200).putHeader("content-type", "application/json").end(output)
             }, { error ->
                 context.response().setStatusCode(500).end(makeError(error))
@@ -158,6 +168,26 @@ class ControllerVerticle : AbstractVerticle() {
             })
         }
 
+        mainRouter.post("/cluster/suspend").handler { context ->
+            vertx.rxExecuteBlocking<String> { future ->
+                future.complete(ClusterSuspendHandler.execute(Gson().fromJson(context.bodyAsString, ClusterDescriptor::class.java), true))
+            }.subscribe({ output ->
+                context.response().setStatusCode(200).putHeader("content-type", "application/json").end(output)
+            }, { error ->
+                context.response().setStatusCode(500).end(makeError(error))
+            })
+        }
+
+        mainRouter.post("/cluster/resume").handler { context ->
+            vertx.rxExecuteBlocking<String> { future ->
+                future.complete(ClusterSuspendHandler.execute(Gson().fromJson(context.bodyAsString, ClusterDescriptor::class.java), false))
+            }.subscribe({ output ->
+                context.response().setStatusCode(200).putHeader("content-type", "application/json").end(output)
+            }, { error ->
+                context.response().setStatusCode(500).end(makeError(error))
+            })
+        }
+
         mainRouter.options("/").handler { context ->
             context.response().setStatusCode(204).end()
         }
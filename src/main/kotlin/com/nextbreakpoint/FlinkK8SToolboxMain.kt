@@ -1,12 +1,15 @@
 package com.nextbreakpoint
 
 import com.github.ajalt.clikt.core.CliktCommand
+import com.github.ajalt.clikt.core.UsageError
 import com.github.ajalt.clikt.core.subcommands
 import com.github.ajalt.clikt.parameters.options.*
+import com.github.ajalt.clikt.parameters.types.double
 import com.github.ajalt.clikt.parameters.types.float
 import com.github.ajalt.clikt.parameters.types.int
 import com.nextbreakpoint.command.*
 import com.nextbreakpoint.model.*
+import com.nextbreakpoint.operator.OperatorMetrics
 import io.kubernetes.client.Configuration
 
 class FlinkK8SToolboxMain {
@@ -23,7 +26,9 @@ class FlinkK8SToolboxMain {
                     ),
                     Cluster().subcommands(
                         CreateClusterCommand(),
-                        DeleteClusterCommand()
+                        DeleteClusterCommand(),
+                        SuspendClusterCommand(),
+                        ResumeClusterCommand()
                     ),
                     Sidecar().subcommands(
                         SidecarSubmitCommand(),
@@ -129,6 +134,8 @@ class FlinkK8SToolboxMain {
         private val taskmanagerServiceAccount: String by option(help="The TaskManager's service account").default("default")
         private val jobmanagerEnvVar: List<String> by option(help="A JobManager's environment variable").multiple()
         private val taskmanagerEnvVar: List<String> by option(help="A TaskManager's environment variable").multiple()
+        private val waitReady: Boolean by option(help="Wait until the JobManager is available and all TaskManagers are registered").flag(default = false)
+        private val waitTimeout: Int by option(help="The maximum time in seconds to wait until the cluster is ready").int().default(100)
 
         override fun run() {
             val config = ClusterConfig(
@@ -182,7 +189,7 @@ class FlinkK8SToolboxMain {
                     parallelism = sidecarParallelism
                 )
             )
-            PostClusterCreateRequest().run(ApiParams(host, port), config)
+            PostClusterCreateRequest().run(ApiParams(host, port), config, waitReady, waitTimeout)
         }
 
         private fun expandVariables(list: List<String>) =
@@ -209,6 +216,40 @@ class FlinkK8SToolboxMain {
         }
     }
 
+    class SuspendClusterCommand: CliktCommand(name = "suspend", help="Suspend a cluster, stopping the job with a savepoint and removing the TaskManagers") {
+        private val host: String by option(help="The controller address").default("localhost")
+        private val port: Int by option(help="The controller port").int().default(4444)
+        private val namespace: String by option(help="The namespace of the cluster").default("default")
+        private val clusterName: String by option(help="The name of the Flink cluster").required()
+        private val environment: String by option(help="The environment of the cluster, which must match the environment of the resource").default("test")
+
+        override fun run() {
+            val descriptor = ClusterDescriptor(
+                namespace = namespace,
+                name = clusterName,
+                environment = environment
+            )
+            PostClusterSuspendRequest().run(ApiParams(host, port), descriptor)
+        }
+    }
+
+    class ResumeClusterCommand: CliktCommand(name = "resume", help="Resume a suspended cluster, restarting the job from the last savepoint") {
+        private val host: String by option(help="The controller address").default("localhost")
+        private val port: Int by option(help="The controller port").int().default(4444)
+        private val namespace: String by option(help="The namespace of the cluster").default("default")
+        private val clusterName: String by option(help="The name of the Flink cluster").required()
+        private val environment: String by option(help="The environment of the cluster, which must match the environment of the resource").default("test")
+
+        override fun run() {
+            val descriptor = ClusterDescriptor(
+                namespace = namespace,
+                name = clusterName,
+                environment = environment
+            )
+            PostClusterResumeRequest().run(ApiParams(host, port), descriptor)
+        }
+    }
+
     class RunJobCommand: CliktCommand(name="run", help="Run a job") {
         private val host: String by option(help="The controller address").default("localhost")
         private val port: Int by option(help="The controller port").int().default(4444)
@@ -454,11 +495,54 @@ class FlinkK8SToolboxMain {
 
     class RunOperatorCommand: CliktCommand(name="run", help="Run the operator") {
         private val namespace: String by option(help="The namespace where to create the resources").default("default")
+        private val namespaces: String? by option(help="A comma separated list of namespaces to watch instead of --namespace")
+        private val allNamespaces: Boolean by option(help="Watch the resources in all namespaces").flag(default = false)
         private val kubeConfig: String? by option(help="The path of kuke config")
+        private val workers: Int by option(help="The number of clusters which can be reconciled in parallel").int().default(4)
+        private val leaderElection: Boolean by option(help="Reconcile clusters only when holding the lease, so that replicas can run as standby").flag(default = false)
+        private val sharding: Boolean by option(help="Share the clusters among all the replicas which use the same lease name, instead of electing a leader").flag(default = false)
+        private val leaseNamespace: String? by option(help="The namespace of the lease used for leader election (default is --namespace)")
+        private val leaseName: String by option(help="The name of the lease used for leader election").default("flink-operator")
+        private val metricsPort: Int by option(help="The port where metrics are exposed in Prometheus format (path /metrics)").int().default(8080)
+        private val metricsLogInterval: Int? by option(help="The interval in seconds between two reports of the metrics in the log (metrics aren't logged by default)").int()
+        private val autoscalerInterval: Int by option(help="The interval in seconds between two evaluations of the clusters with autoscaling enabled").int().default(30)
+        private val snapshotPath: String? by option(help="The path of the file where the state of the operator is saved, so that it can restart without relisting all the resources")
+        private val snapshotInterval: Int by option(help="The interval in seconds between two snapshots of the state of the operator").int().default(60)
+        private val apiReadRate: Double by option(help="The maximum number of get and list requests per second to the Kubernetes API").double().default(20.0)
+        private val apiWriteRate: Double by option(help="The maximum number of create, update, patch and delete requests per second to the Kubernetes API").double().default(10.0)
+        private val apiWatchRate: Double by option(help="The maximum number of watch requests per second to the Kubernetes API").double().default(2.0)
+        private val apiReadBurst: Int? by option(help="The maximum number of get and list requests sent in a burst (default is twice --api-read-rate)").int()
+        private val apiWriteBurst: Int? by option(help="The maximum number of create, update, patch and delete requests sent in a burst (default is twice --api-write-rate)").int()
+        private val apiWatchBurst: Int? by option(help="The maximum number of watch requests sent in a burst (default is five times --api-watch-rate)").int()
 
         override fun run() {
-            Configuration.setDefaultApiClient(CommandUtils.createKubernetesClient(kubeConfig))
-            RunOperator().run(OperatorConfig(namespace))
+            if (leaderElection && sharding) {
+                throw UsageError("--leader-election and --sharding can't be used together")
+            }
+            val config = OperatorConfig(
+                namespaces = namespaces?.split(",")?.map { it.trim() }?.filter { it.isNotEmpty() }?.distinct() ?: listOf(namespace),
+                allNamespaces = allNamespaces,
+                workers = workers,
+                leaderElection = leaderElection,
+                sharding = sharding,
+                leaseNamespace = leaseNamespace ?: namespace,
+                leaseName = leaseName,
+                metricsPort = metricsPort,
+                metricsLogInterval = metricsLogInterval,
+                autoscalerInterval = autoscalerInterval,
+                snapshotPath = snapshotPath,
+                snapshotInterval = snapshotInterval,
+                apiRateLimits = ApiRateLimits(
+                    readRate = apiReadRate,
+                    readBurst = apiReadBurst ?: Math.max(1, (apiReadRate * 2).toInt()),
+                    writeRate = apiWriteRate,
+                    writeBurst = apiWriteBurst ?: Math.max(1, (apiWriteRate * 2).toInt()),
+                    watchRate = apiWatchRate,
+                    watchBurst = apiWatchBurst ?: Math.max(1, (apiWatchRate * 5).toInt())
+                )
+            )
+            Configuration.setDefaultApiClient(CommandUtils.createKubernetesClient(kubeConfig, config.apiRateLimits, OperatorMetrics.registry))
+            RunOperator().run(config)
         }
     }
 
@@ -5,10 +5,10 @@ import com.nextbreakpoint.model.ApiParams
 import com.nextbreakpoint.model.ClusterConfig
 
 class PostClusterCreateRequest {
-    fun run(apiParams: ApiParams, clusterConfig: ClusterConfig) {
+    fun run(apiParams: ApiParams, clusterConfig: ClusterConfig, waitReady: Boolean = false, waitTimeout: Int = 100) {
         val client = createWebClient(host = apiParams.host, port = apiParams.port)
         try {
-            val response = client.post("/cluster/create")
+            val response = client.post(if (waitReady) "/cluster/create?waitReady=true&waitTimeout=$waitTimeout" else "/cluster/create")
                 .putHeader("content-type", "application/json")
                 .rxSendJson(clusterConfig)
                 .toBlocking()
@@ -1,543 +1,980 @@
 package com.nextbreakpoint.command
 
+import com.codahale.metrics.Gauge
 import com.google.gson.reflect.TypeToken
 import com.nextbreakpoint.handler.ClusterCreateHandler
 import com.nextbreakpoint.handler.ClusterDeleteHandler
+import com.nextbreakpoint.handler.ClusterLoadHandler
+import com.nextbreakpoint.handler.ClusterSavepointHandler
+import com.nextbreakpoint.handler.ClusterUpdateHandler
+import com.nextbreakpoint.handler.JobScaleHandler
 import com.nextbreakpoint.model.*
+import com.nextbreakpoint.operator.ApiMetricsInterceptor
+import com.nextbreakpoint.operator.ClusterConfigHash
+import com.nextbreakpoint.operator.ClusterDescriptors
+import com.nextbreakpoint.operator.ConsistentHashRing
+import com.nextbreakpoint.operator.ClusterResources
+import com.nextbreakpoint.operator.ClusterResourceKind
+import com.nextbreakpoint.operator.ClusterExpectation
+import com.nextbreakpoint.operator.ExponentialBackoffRateLimiter
+import com.nextbreakpoint.operator.FlinkClusterStatusWriter
+import com.nextbreakpoint.operator.LeaderElector
+import com.nextbreakpoint.operator.OperatorCache
+import com.nextbreakpoint.operator.DeploymentProjection
+import com.nextbreakpoint.operator.DesiredState
+import com.nextbreakpoint.operator.DesiredStateCache
+import com.nextbreakpoint.operator.ExpectationSnapshot
+import com.nextbreakpoint.operator.OperatorMetrics
+import com.nextbreakpoint.operator.OperatorSnapshot
+import com.nextbreakpoint.operator.OperatorSnapshotStore
+import com.nextbreakpoint.operator.PersistentVolumeClaimProjection
+import com.nextbreakpoint.operator.PodHealthMonitor
+import com.nextbreakpoint.operator.PodProjection
+import com.nextbreakpoint.operator.ResourceChangePredicates
+import com.nextbreakpoint.operator.ResourceEventHandler
+import com.nextbreakpoint.operator.ResourceInformer
+import com.nextbreakpoint.operator.ResourcePage
+import com.nextbreakpoint.operator.ResourceProjections
+import com.nextbreakpoint.operator.ServiceProjection
+import com.nextbreakpoint.operator.ShardMembership
+import com.nextbreakpoint.operator.StatefulSetProjection
+import com.nextbreakpoint.operator.TaskManagerAutoscaler
+import com.nextbreakpoint.operator.WorkQueue
+import com.nextbreakpoint.operator.WorkerPool
+import io.kubernetes.client.ApiException
 import io.kubernetes.client.Configuration
+import io.kubernetes.client.JSON
 import io.kubernetes.client.apis.AppsV1Api
 import io.kubernetes.client.apis.CoreV1Api
 import io.kubernetes.client.apis.CustomObjectsApi
 import io.kubernetes.client.models.V1Deployment
 import io.kubernetes.client.models.V1ObjectMeta
+import io.kubernetes.client.models.V1OwnerReference
 import io.kubernetes.client.models.V1PersistentVolumeClaim
+import io.kubernetes.client.models.V1Pod
 import io.kubernetes.client.models.V1Service
 import io.kubernetes.client.models.V1StatefulSet
 import io.kubernetes.client.util.Watch
 import org.apache.log4j.Logger
-import java.net.SocketTimeoutException
-import java.util.concurrent.LinkedBlockingQueue
-import java.util.concurrent.Semaphore
+import java.net.InetAddress
+import java.util.UUID
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.Executors
 import java.util.concurrent.TimeUnit
 import kotlin.concurrent.thread
 
 class RunOperator {
     companion object {
         val logger = Logger.getLogger(RunOperator::class.simpleName)
+
+        private const val expectationTimeout = 300000L
+
+        private const val savepointTimeout = 600000L
+
+        private const val savepointPollInterval = 5000L
+
+        private const val deletionTimeout = 300000L
+
+        private const val deletionPollInterval = 5000L
+
+        private val volumeClaimKinds = setOf(ClusterResourceKind.JobManagerPersistentVolumeClaim, ClusterResourceKind.TaskManagerPersistentVolumeClaim)
     }
 
-    private val sharedLock = Semaphore(1)
-    private val queue = LinkedBlockingQueue<String>()
-    private val clusters = mutableMapOf<ClusterDescriptor, V1FlinkCluster>()
-    private val status = mutableMapOf<ClusterDescriptor, Long>()
-    private val services = mutableMapOf<ClusterDescriptor, V1Service>()
-    private val deployments = mutableMapOf<ClusterDescriptor, V1Deployment>()
-    private val jobmanagerStatefulSets = mutableMapOf<ClusterDescriptor, V1StatefulSet>()
-    private val taskmanagerStatefulSets = mutableMapOf<ClusterDescriptor, V1StatefulSet>()
-    private val jobmanagerPersistentVolumeClaims = mutableMapOf<ClusterDescriptor, V1PersistentVolumeClaim>()
-    private val taskmanagerPersistentVolumeClaims = mutableMapOf<ClusterDescriptor, V1PersistentVolumeClaim>()
+    private val queue = WorkQueue<ClusterDescriptor>(ExponentialBackoffRateLimiter(1000L, 300000L))
+    private val cache = OperatorCache()
+    private val expectations = ConcurrentHashMap<ClusterDescriptor, ClusterExpectation>()
+    private val diverged = ConcurrentHashMap.newKeySet<ClusterDescriptor>()
+    private val deletions = ConcurrentHashMap<ClusterDescriptor, Long>()
+    private val objectApi = CustomObjectsApi()
+    private val statusWriter = FlinkClusterStatusWriter(objectApi)
+    private val podMonitor = PodHealthMonitor(CoreV1Api())
+    private val desiredStates = DesiredStateCache()
+
+    @Volatile
+    private var membership: ShardMembership? = null
+    private val filteredEvents = OperatorMetrics.registry.counter("events.filtered")
+    private val autoscaleQueue = WorkQueue<ClusterDescriptor>(ExponentialBackoffRateLimiter(5000L, 300000L))
+    private val autoscaler = TaskManagerAutoscaler(
+        CustomObjectsApi(),
+        { descriptor -> ClusterLoadHandler.execute(null, false, descriptor) },
+        { descriptor, jobId, parallelism -> JobScaleHandler.execute(null, false, JobScaleParams(descriptor = descriptor, jobId = jobId, parallelism = parallelism)) }
+    )
 
     fun run(config: OperatorConfig) {
         RunController.logger.info("Launching operator...")
 
-        val objectApi = CustomObjectsApi()
-
         val coreApi = CoreV1Api()
 
         val appsApi = AppsV1Api()
 
-        thread {
-            while (true) {
-                try {
-                    val watch = watchFlickClusterResources(config.namespace, objectApi)
-
-                    watch.forEach { resource ->
-                        val clusterName = resource.`object`.spec.clusterName
-                        val environment = resource.`object`.spec.environment
-                        if (clusterName != null && environment != null) {
-                            sharedLock.acquire()
-                            when (resource.type) {
-                                "ADDED", "MODIFIED" -> clusters.put(ClusterDescriptor(namespace = config.namespace, name = clusterName, environment = environment), resource.`object`)
-                                "DELETED" -> clusters.remove(ClusterDescriptor(namespace = config.namespace, name = clusterName, environment = environment))
-                            }
-                            queue.add(resource.`object`.kind)
-                            sharedLock.release()
-                        }
+        Configuration.getDefaultApiClient().httpClient.interceptors().add(ApiMetricsInterceptor(OperatorMetrics.registry))
+
+        val namespaces = if (config.allNamespaces) listOf(null) else config.namespaces
+
+        val informers = namespaces.flatMap { namespace ->
+            createInformers(namespace, objectApi, coreApi, appsApi).map { informer -> "${namespace ?: "*"}/${informer.kind}" to informer }
+        }.toMap()
+
+        val snapshotStore = config.snapshotPath?.let { path -> OperatorSnapshotStore(path, JSON().gson) }
+
+        snapshotStore?.read()?.let { snapshot -> restoreSnapshot(snapshot, informers) }
+
+        val informerThreads = informers.values.map { informer -> thread { informer.run() } }
+
+        try {
+            informers.values.forEach { informer -> informer.waitForSync(60, TimeUnit.SECONDS) }
+
+            snapshotStore?.let { store -> scheduleSnapshots(store, informers, config.snapshotInterval.toLong()) }
+
+            val workerPool = WorkerPool("reconcile", queue, config.workers) { descriptor -> reconcile(descriptor) }
+
+            workerPool.registerMetrics(OperatorMetrics.registry)
+
+            val autoscalePool = WorkerPool("autoscale", autoscaleQueue, 1) { descriptor -> autoscale(descriptor) }
+
+            scheduleAutoscaling(config.autoscalerInterval.toLong())
+
+            OperatorMetrics.registry.register("clusters.diverged", Gauge<Int> { diverged.size })
+
+            OperatorMetrics.registry.register("clusters.orphaned", Gauge<Int> { cache.getOrphans().size })
+
+            config.metricsLogInterval?.let { interval -> OperatorMetrics.startReporter(interval.toLong(), TimeUnit.SECONDS) }
+
+            OperatorMetrics.startServer(config.metricsPort)
+
+            if (config.sharding) {
+                val shardMembership = ShardMembership(
+                    config.leaseNamespace,
+                    config.leaseName,
+                    createIdentity(),
+                    { oldRing, newRing -> rebalance(oldRing, newRing) },
+                    {
+                        logger.info("Starting ${config.workers} reconcile worker${if (config.workers == 1) "" else "s"}...")
+                        statusWriter.clear()
+                        podMonitor.clear()
+                        workerPool.start()
+                        autoscalePool.start()
+                        (cache.getFlinkClusters().keys + cache.getOrphans()).forEach { descriptor -> enqueue(descriptor) }
+                    },
+                    {
+                        logger.info("Stopping reconcile workers...")
+                        workerPool.stop()
+                        autoscalePool.stop()
                     }
-                } catch (e : InterruptedException) {
-                    break
-                } catch (e : RuntimeException) {
-                    if (!(e.cause is SocketTimeoutException)) {
-                        e.printStackTrace()
+                )
+
+                shardMembership.join()
+
+                membership = shardMembership
+
+                OperatorMetrics.registry.register("shard.members", Gauge<Int> { shardMembership.ring.members.size })
+
+                OperatorMetrics.registry.register("shard.clusters", Gauge<Int> { cache.getFlinkClusters().keys.count { isOwned(it) } })
+
+                logger.info("Starting ${config.workers} reconcile worker${if (config.workers == 1) "" else "s"}...")
+
+                workerPool.start()
+
+                autoscalePool.start()
+
+                shardMembership.run()
+            } else if (config.leaderElection) {
+                val leaderElector = LeaderElector(
+                    config.leaseNamespace,
+                    config.leaseName,
+                    createIdentity(),
+                    {
+                        logger.info("Starting ${config.workers} reconcile worker${if (config.workers == 1) "" else "s"}...")
+                        statusWriter.clear()
+                        podMonitor.clear()
+                        workerPool.start()
+                        autoscalePool.start()
+                    },
+                    {
+                        logger.info("Stopping reconcile workers...")
+                        workerPool.stop()
+                        autoscalePool.stop()
                     }
-                } catch (e : Exception) {
-                    e.printStackTrace()
-                }
+                )
+
+                OperatorMetrics.registry.register("leader", Gauge<Int> { if (leaderElector.isLeader) 1 else 0 })
+
+                leaderElector.run()
+            } else {
+                logger.info("Starting ${config.workers} reconcile worker${if (config.workers == 1) "" else "s"}...")
+
+                workerPool.start()
+
+                autoscalePool.start()
+
+                informerThreads.forEach { thread -> thread.join() }
             }
+        } catch (e: Exception) {
+            logger.error("An error occurred while processing the resources", e)
         }
+    }
 
-        thread {
-            while (true) {
-                try {
-                    val watch = watchServiceResources(config.namespace, coreApi)
-
-                    watch.forEach { resource ->
-                        val clusterName = resource.`object`.metadata.labels.get("cluster")
-                        val environment = resource.`object`.metadata.labels.get("environment")
-                        if (clusterName != null && environment != null) {
-                            sharedLock.acquire()
-                            when (resource.type) {
-                                "ADDED", "MODIFIED" -> services.put(ClusterDescriptor(namespace = config.namespace, name = clusterName, environment = environment), resource.`object`)
-                                "DELETED" -> services.remove(ClusterDescriptor(namespace = config.namespace, name = clusterName, environment = environment))
-                            }
-                            queue.add(resource.`object`.kind)
-                            sharedLock.release()
-                        }
-                    }
-                } catch (e : InterruptedException) {
-                    break
-                } catch (e : RuntimeException) {
-                    if (!(e.cause is SocketTimeoutException)) {
-                        e.printStackTrace()
-                    }
-                } catch (e : Exception) {
-                    e.printStackTrace()
-                }
+    private fun createInformers(namespace: String?, objectApi: CustomObjectsApi, coreApi: CoreV1Api, appsApi: AppsV1Api) =
+        listOf(
+            ResourceInformer(
+                "FlinkCluster",
+                { _ -> listFlinkClusterResources(namespace, objectApi) },
+                { resourceVersion -> watchFlickClusterResources(namespace, objectApi, resourceVersion) },
+                { resource -> resource },
+                V1FlinkCluster::class.java,
+                { resource -> resource.metadata },
+                createEventHandler(
+                    { descriptor, resource -> cache.onFlinkClusterChanged(descriptor, resource) },
+                    { descriptor, resource ->
+                        cache.onFlinkClusterDeleted(descriptor)
+                        statusWriter.forget(resource)
+                        desiredStates.forget(resource)
+                        autoscaler.forget(descriptor)
+                    },
+                    { oldResource, newResource -> ResourceChangePredicates.isRelevant(oldResource, newResource) }
+                ) { resource -> ClusterDescriptors.of(resource) }
+            ),
+            ResourceInformer(
+                "Service",
+                { continueToken -> listServiceResources(namespace, coreApi, continueToken) },
+                { resourceVersion -> watchServiceResources(namespace, coreApi, resourceVersion) },
+                { resource -> ResourceProjections.of(resource) },
+                ServiceProjection::class.java,
+                { resource -> resource.metadata },
+                createEventHandler(
+                    { descriptor, resource -> cache.onServiceChanged(descriptor, resource) },
+                    { descriptor, _ -> cache.onServiceDeleted(descriptor) },
+                    { oldResource, newResource -> ResourceChangePredicates.isRelevant(oldResource, newResource) }
+                ) { resource -> ClusterDescriptors.of(resource.metadata) }
+            ),
+            ResourceInformer(
+                "Deployment",
+                { continueToken -> listDeploymentResources(namespace, appsApi, continueToken) },
+                { resourceVersion -> watchDeploymentResources(namespace, appsApi, resourceVersion) },
+                { resource -> ResourceProjections.of(resource) },
+                DeploymentProjection::class.java,
+                { resource -> resource.metadata },
+                createEventHandler(
+                    { descriptor, resource -> cache.onDeploymentChanged(descriptor, resource) },
+                    { descriptor, _ -> cache.onDeploymentDeleted(descriptor) },
+                    { oldResource, newResource -> ResourceChangePredicates.isRelevant(oldResource, newResource) }
+                ) { resource -> ClusterDescriptors.of(resource.metadata) }
+            ),
+            ResourceInformer(
+                "StatefulSet",
+                { continueToken -> listStatefulSetResources(namespace, appsApi, continueToken) },
+                { resourceVersion -> watchStatefulSetResources(namespace, appsApi, resourceVersion) },
+                { resource -> ResourceProjections.of(resource) },
+                StatefulSetProjection::class.java,
+                { resource -> resource.metadata },
+                createEventHandler(
+                    { descriptor, resource -> cache.onStatefulSetChanged(descriptor, resource) },
+                    { descriptor, resource -> cache.onStatefulSetDeleted(descriptor, resource) },
+                    { oldResource, newResource -> ResourceChangePredicates.isRelevant(oldResource, newResource) }
+                ) { resource -> ClusterDescriptors.of(resource.metadata) }
+            ),
+            ResourceInformer(
+                "PersistentVolumeClaim",
+                { continueToken -> listPermanentVolumeClaimResources(namespace, coreApi, continueToken) },
+                { resourceVersion -> watchPermanentVolumeClaimResources(namespace, coreApi, resourceVersion) },
+                { resource -> ResourceProjections.of(resource) },
+                PersistentVolumeClaimProjection::class.java,
+                { resource -> resource.metadata },
+                createEventHandler(
+                    { descriptor, resource -> cache.onPersistentVolumeClaimChanged(descriptor, resource) },
+                    { descriptor, resource -> cache.onPersistentVolumeClaimDeleted(descriptor, resource) },
+                    { oldResource, newResource -> ResourceChangePredicates.isRelevant(oldResource, newResource) }
+                ) { resource -> ClusterDescriptors.of(resource.metadata) }
+            ),
+            ResourceInformer(
+                "Pod",
+                { continueToken -> listPodResources(namespace, coreApi, continueToken) },
+                { resourceVersion -> watchPodResources(namespace, coreApi, resourceVersion) },
+                { resource -> ResourceProjections.of(resource) },
+                PodProjection::class.java,
+                { resource -> resource.metadata },
+                createEventHandler(
+                    { descriptor, resource -> cache.onPodChanged(descriptor, resource) },
+                    { descriptor, resource ->
+                        cache.onPodDeleted(descriptor, resource)
+                        podMonitor.forget(resource)
+                    },
+                    { oldResource, newResource -> ResourceChangePredicates.isRelevant(oldResource, newResource) }
+                ) { resource -> ClusterDescriptors.of(resource.metadata) }
+            )
+        )
+
+    private fun createIdentity() =
+        "${System.getenv("POD_NAME") ?: InetAddress.getLocalHost().hostName}_${UUID.randomUUID()}"
+
+    private fun <T> createEventHandler(
+        onChanged: (ClusterDescriptor, T) -> Unit,
+        onDeleted: (ClusterDescriptor, T) -> Unit,
+        isRelevant: (T, T) -> Boolean,
+        descriptorOf: (T) -> ClusterDescriptor?
+    ) = object : ResourceEventHandler<T> {
+        override fun onAdd(resource: T) = update(resource, onChanged, true)
+
+        override fun onUpdate(oldResource: T, newResource: T) {
+            val oldDescriptor = descriptorOf(oldResource)
+            val newDescriptor = descriptorOf(newResource)
+            if (oldDescriptor != null && oldDescriptor != newDescriptor) {
+                onDeleted(oldDescriptor, oldResource)
+                enqueue(oldDescriptor)
             }
+            update(newResource, onChanged, oldDescriptor != newDescriptor || isRelevant(oldResource, newResource))
         }
 
-        thread {
-            while (true) {
-                try {
-                    val watch = watchDeploymentResources(config.namespace, appsApi)
-
-                    watch.forEach { resource ->
-                        val clusterName = resource.`object`.metadata.labels.get("cluster")
-                        val environment = resource.`object`.metadata.labels.get("environment")
-                        if (clusterName != null && environment != null) {
-                            sharedLock.acquire()
-                            when (resource.type) {
-                                "ADDED", "MODIFIED" -> deployments.put(ClusterDescriptor(namespace = config.namespace, name = clusterName, environment = environment), resource.`object`)
-                                "DELETED" -> deployments.remove(ClusterDescriptor(namespace = config.namespace, name = clusterName, environment = environment))
-                            }
-                            queue.add(resource.`object`.kind)
-                            sharedLock.release()
-                        }
-                    }
-                } catch (e : InterruptedException) {
-                    break
-                } catch (e : RuntimeException) {
-                    if (!(e.cause is SocketTimeoutException)) {
-                        e.printStackTrace()
-                    }
-                } catch (e : Exception) {
-                    e.printStackTrace()
+        override fun onDelete(resource: T) = update(resource, onDeleted, true)
+
+        private fun update(resource: T, action: (ClusterDescriptor, T) -> Unit, enqueue: Boolean) {
+            val descriptor = descriptorOf(resource)
+            if (descriptor != null) {
+                action(descriptor, resource)
+                if (enqueue) {
+                    enqueue(descriptor)
+                } else {
+                    filteredEvents.inc()
                 }
             }
         }
+    }
 
-        thread {
-            while (true) {
-                try {
-                    val watch = watchStatefulSetResources(config.namespace, appsApi)
-
-                    watch.forEach { resource ->
-                        val clusterName = resource.`object`.metadata.labels.get("cluster")
-                        val environment = resource.`object`.metadata.labels.get("environment")
-                        val role = resource.`object`.metadata.labels.get("role")
-                        if (clusterName != null && environment != null && role != null) {
-                            sharedLock.acquire()
-                            if (role.equals("jobmanager")) {
-                                when (resource.type) {
-                                    "ADDED", "MODIFIED" -> jobmanagerStatefulSets.put(ClusterDescriptor(namespace = config.namespace, name = clusterName, environment = environment), resource.`object`)
-                                    "DELETED" -> jobmanagerStatefulSets.remove(ClusterDescriptor(namespace = config.namespace, name = clusterName, environment = environment))
-                                }
-                            } else {
-                                when (resource.type) {
-                                    "ADDED", "MODIFIED" -> taskmanagerStatefulSets.put(ClusterDescriptor(namespace = config.namespace, name = clusterName, environment = environment), resource.`object`)
-                                    "DELETED" -> taskmanagerStatefulSets.remove(ClusterDescriptor(namespace = config.namespace, name = clusterName, environment = environment))
-                                }
-                            }
-                            queue.add(resource.`object`.kind)
-                            sharedLock.release()
-                        }
-                    }
-                } catch (e : InterruptedException) {
-                    break
-                } catch (e : RuntimeException) {
-                    if (!(e.cause is SocketTimeoutException)) {
-                        e.printStackTrace()
-                    }
-                } catch (e : Exception) {
-                    e.printStackTrace()
-                }
+    private fun enqueue(descriptor: ClusterDescriptor) {
+        if (isOwned(descriptor)) {
+            queue.add(descriptor)
+        }
+    }
+
+    private fun isOwned(descriptor: ClusterDescriptor) = membership?.isOwner(shardKeyOf(descriptor)) ?: true
+
+    private fun shardKeyOf(descriptor: ClusterDescriptor) = "${descriptor.namespace}/${descriptor.name}/${descriptor.environment}"
+
+    private fun rebalance(oldRing: ConsistentHashRing, newRing: ConsistentHashRing) {
+        val descriptors = cache.getFlinkClusters().keys + cache.getOrphans()
+
+        descriptors.forEach { descriptor ->
+            val key = shardKeyOf(descriptor)
+
+            if (oldRing.ownerOf(key) == newRing.ownerOf(key)) {
+                return@forEach
+            }
+
+            if (isOwned(descriptor)) {
+                logger.info("Cluster ${descriptor.name} moved to this replica")
+
+                cache.getFlinkCluster(descriptor)?.let { cluster -> statusWriter.forget(cluster) }
+
+                queue.add(descriptor)
+            } else {
+                logger.info("Cluster ${descriptor.name} moved to replica ${newRing.ownerOf(key)}")
+
+                expectations.remove(descriptor)
+
+                deletions.remove(descriptor)
+
+                diverged.remove(descriptor)
+
+                autoscaler.forget(descriptor)
             }
         }
+    }
 
-        thread {
-            while (true) {
-                try {
-                    val watch = watchPermanentVolumeClaimResources(config.namespace, coreApi)
-
-                    watch.forEach { resource ->
-                        val clusterName = resource.`object`.metadata.labels.get("cluster")
-                        val environment = resource.`object`.metadata.labels.get("environment")
-                        val role = resource.`object`.metadata.labels.get("role")
-                        if (clusterName != null && environment != null && role != null) {
-                            sharedLock.acquire()
-                            if (role.equals("jobmanager")) {
-                                when (resource.type) {
-                                    "ADDED", "MODIFIED" -> jobmanagerPersistentVolumeClaims.put(ClusterDescriptor(namespace = config.namespace, name = clusterName, environment = environment), resource.`object`)
-                                    "DELETED" -> jobmanagerPersistentVolumeClaims.remove(ClusterDescriptor(namespace = config.namespace, name = clusterName, environment = environment))
-                                }
-                            } else {
-                                when (resource.type) {
-                                    "ADDED", "MODIFIED" -> taskmanagerPersistentVolumeClaims.put(ClusterDescriptor(namespace = config.namespace, name = clusterName, environment = environment), resource.`object`)
-                                    "DELETED" -> taskmanagerPersistentVolumeClaims.remove(ClusterDescriptor(namespace = config.namespace, name = clusterName, environment = environment))
-                                }
-                            }
-                            queue.add(resource.`object`.kind)
-                            sharedLock.release()
-                        }
-                    }
-                } catch (e : InterruptedException) {
-                    break
-                } catch (e : RuntimeException) {
-                    if (!(e.cause is SocketTimeoutException)) {
-                        e.printStackTrace()
-                    }
-                } catch (e : Exception) {
-                    e.printStackTrace()
+    private fun reconcile(descriptor: ClusterDescriptor) {
+        // the cluster might have moved to another replica after being enqueued
+        if (!isOwned(descriptor)) {
+            return
+        }
+
+        val cluster = cache.getFlinkCluster(descriptor)
+
+        if (cluster == null) {
+            if (deletions.containsKey(descriptor) || (cache.isOrphan(descriptor) && isFlinkClusterDeleted(descriptor))) {
+                if (!deletions.containsKey(descriptor)) {
+                    logger.info("Deleting orphan cluster ${descriptor.name} (${cache.getOwnedKinds(descriptor).joinToString()})...")
+                }
+
+                if (!delete(descriptor)) {
+                    return
                 }
             }
+
+            expectations.remove(descriptor)
+
+            diverged.remove(descriptor)
+
+            OperatorMetrics.registry.remove(reconcileTimerName(descriptor))
+
+            return
         }
 
+        val resources = cache.snapshot(descriptor)
+
+        val pods = cache.getPods(descriptor)
+
+        podMonitor.check(cluster, pods)
+
+        val timestamp = System.currentTimeMillis()
+
+        var phase: String? = "Failed"
+
+        val currentStatus = statusWriter.current(cluster)
+
+        val clusterStatus = V1FlinkClusterStatus()
+            .setTaskmanagerReplicas(resources.taskmanagerStatefulSet?.replicas ?: 0)
+            .setJobmanagerReady(pods.any { it.metadata.labels?.get("role") == "jobmanager" && it.ready })
+            .setTaskmanagerReadyReplicas(pods.count { it.metadata.labels?.get("role") == "taskmanager" && it.ready })
+            .setPodRestarts(pods.sumBy { it.restarts })
+            .setLabelSelector(resources.taskmanagerStatefulSet?.metadata?.labels?.entries?.sortedBy { it.key }?.joinToString(",") { "${it.key}=${it.value}" })
+            .setJobId(currentStatus?.jobId)
+            .setLastSavepoint(currentStatus?.lastSavepoint)
+            .setLastSavepointOrigin(currentStatus?.lastSavepointOrigin)
+            .setSavepointJobId(currentStatus?.savepointJobId)
+            .setSavepointTriggerId(currentStatus?.savepointTriggerId)
+            .setSavepointTimestamp(currentStatus?.savepointTimestamp)
+            .setSavepointStatus(currentStatus?.savepointStatus)
+            .setSavepointOrigin(currentStatus?.savepointOrigin)
+
         try {
-            Thread.sleep(10000L)
+            phase = reconcile(descriptor, cluster, resources, clusterStatus)
 
-            while (true) {
-                logger.info("Wait for next event...")
+            if (phase == "Running" && cluster.spec.suspended == true) {
+                phase = "Suspended"
+            }
+        } finally {
+            val duration = System.currentTimeMillis() - timestamp
 
-                val values = queue.poll(60, TimeUnit.SECONDS)
+            OperatorMetrics.durations(reconcileTimerName(descriptor)).update(duration, TimeUnit.MILLISECONDS)
 
-                if (values != null) {
-                    while (!queue.isEmpty()) {
-                        queue.remove()
-                    }
+            if (phase == "Running" || phase == "Suspended") {
+                diverged.remove(descriptor)
+            } else {
+                diverged.add(descriptor)
+            }
 
-                    reconcile()
-                }
+            clusterStatus
+                .setPhase(phase ?: currentStatus?.phase)
+                .setObservedGeneration(cluster.metadata.generation)
+                .setLastReconcileDuration(duration)
 
-                Thread.sleep(5000L)
+            statusWriter.write(cluster, clusterStatus)
+        }
+    }
+
+    // the cache might still contain resources restored from a snapshot, therefore the deletion is confirmed with the API server
+    private fun isFlinkClusterDeleted(descriptor: ClusterDescriptor): Boolean {
+        try {
+            val gson = JSON().gson
+
+            val resource = objectApi.getNamespacedCustomObject(
+                "beta.nextbreakpoint.com",
+                "v1",
+                descriptor.namespace,
+                "flinkclusters",
+                descriptor.name
+            )
+
+            val cluster = gson.fromJson(gson.toJsonTree(resource), V1FlinkCluster::class.java)
+
+            return ClusterDescriptors.of(cluster) != descriptor
+        } catch (e: ApiException) {
+            if (e.code == 404) {
+                return true
             }
-        } catch (e: Exception) {
-            logger.error("An error occurred while processing the resources", e)
+            throw e
         }
     }
 
-    private fun reconcile() {
-        sharedLock.acquire()
+    private fun reconcile(descriptor: ClusterDescriptor, cluster: V1FlinkCluster, resources: ClusterResources, status: V1FlinkClusterStatus): String? {
+        val savepoint = savepointOf(cluster.spec, status)
 
-        try {
-            logger.info("Found ${clusters.size} Flink Cluster resource${if (clusters.size == 1) "" else "s"}")
+        val desiredState = desiredStates.of(cluster, savepoint) { createClusterConfig(cluster.metadata, cluster.spec, savepoint) }
 
-            val divergentClusters = mutableMapOf<ClusterDescriptor, ClusterConfig>()
+        val clusterConfig = desiredState.clusterConfig
 
-            clusters.values.forEach { cluster ->
-                val clusterConfig = createClusterConfig(cluster.metadata, cluster.spec)
+        val hash = desiredState.hash
 
-                if (hasDiverged(
-                        clusterConfig,
-                        deployments,
-                        jobmanagerStatefulSets,
-                        taskmanagerStatefulSets,
-                        services,
-                        jobmanagerPersistentVolumeClaims,
-                        taskmanagerPersistentVolumeClaims
-                    )
-                ) {
-                    val lastUpdated = status.get(clusterConfig.descriptor)
+        if (deletions.containsKey(descriptor)) {
+            return recreate(descriptor, cluster, desiredState)
+        }
 
-                    if (lastUpdated == null) {
-                        logger.info("Cluster ${clusterConfig.descriptor.name} has diverged. Reconciling state...")
+        if (isUnchanged(hash, clusterConfig, resources)) {
+            expectations.remove(descriptor)
 
-                        divergentClusters.put(clusterConfig.descriptor, clusterConfig)
+            return "Running"
+        }
 
-                        status.put(clusterConfig.descriptor, System.currentTimeMillis())
-                    } else if (System.currentTimeMillis() - lastUpdated > 120000) {
-                        logger.info("Cluster ${clusterConfig.descriptor.name} has diverged. Reconciling state...")
+        val expectation = expectations.get(descriptor)
 
-                        divergentClusters.put(clusterConfig.descriptor, clusterConfig)
+        if (expectation != null && expectation.hash == hash && expectation.replicas == clusterConfig.taskmanager.replicas) {
+            val remaining = expectation.deadline - System.currentTimeMillis()
 
-                        status.put(clusterConfig.descriptor, System.currentTimeMillis())
-                    }
-                }
+            if (remaining > 0) {
+                queue.addAfter(descriptor, remaining)
+
+                return expectation.phase
             }
 
-            clusters.values.forEach { cluster ->
-                val clusterConfig = createClusterConfig(cluster.metadata, cluster.spec)
+            logger.warn("Cluster ${clusterConfig.descriptor.name} didn't reach the desired state in time")
+        }
 
-                if (divergentClusters.containsKey(clusterConfig.descriptor)) {
-                    logger.info("Deleting cluster ${clusterConfig.descriptor.name}...")
+        val currentClusterConfig = currentClusterConfig(clusterConfig, resources)
 
-                    ClusterDeleteHandler.execute(clusterConfig.descriptor)
-                }
-            }
+        if (currentClusterConfig == clusterConfig) {
+            expectations.remove(descriptor)
 
-            clusters.values.forEach { cluster ->
-                val clusterConfig = createClusterConfig(cluster.metadata, cluster.spec)
+            return "Running"
+        }
 
-                if (divergentClusters.containsKey(clusterConfig.descriptor)) {
-                    logger.info("Creating cluster ${clusterConfig.descriptor.name}...")
+        logger.info("Cluster ${clusterConfig.descriptor.name} has diverged. Reconciling state...")
 
-                    ClusterCreateHandler.execute("flink-operator", clusterConfig)
-                }
-            }
+        logger.info("Current config: $currentClusterConfig")
+        logger.info("Desired config: $clusterConfig")
 
-            val clusterConfigs = mutableMapOf<ClusterDescriptor, ClusterConfig>()
+        if (!isSavepointPending(status) && currentClusterConfig != null && isReplicasOnly(currentClusterConfig, clusterConfig)) {
+            return scale(descriptor, resources, currentClusterConfig, desiredState)
+        }
 
-            clusters.values.forEach { cluster ->
-                val clusterConfig = createClusterConfig(cluster.metadata, cluster.spec)
+        if (isSavepointPending(status) || (currentClusterConfig != null && isSavepointRequired(currentClusterConfig, clusterConfig))) {
+            if (!savepoint(descriptor, cluster, status)) {
+                queue.addAfter(descriptor, savepointPollInterval)
 
-                clusterConfigs.put(clusterConfig.descriptor, clusterConfig)
+                return "Savepointing"
             }
 
-            deleteOrphans(
-                services,
-                clusterConfigs,
-                deployments,
-                jobmanagerStatefulSets,
-                taskmanagerStatefulSets,
-                jobmanagerPersistentVolumeClaims,
-                taskmanagerPersistentVolumeClaims
-            )
-        } finally {
-            sharedLock.release()
+            val newSavepoint = savepointOf(cluster.spec, status)
+
+            val newDesiredState = desiredStates.of(cluster, newSavepoint) { createClusterConfig(cluster.metadata, cluster.spec, newSavepoint) }
+
+            return upgrade(descriptor, cluster, resources, currentClusterConfig, newDesiredState)
         }
+
+        return upgrade(descriptor, cluster, resources, currentClusterConfig, desiredState)
     }
 
-    private fun deleteOrphans(
-        services: MutableMap<ClusterDescriptor, V1Service>,
-        flinkClusters: MutableMap<ClusterDescriptor, ClusterConfig>,
-        deployments: MutableMap<ClusterDescriptor, V1Deployment>,
-        jobmanagerStatefulSets: MutableMap<ClusterDescriptor, V1StatefulSet>,
-        taskmanagerStatefulSets: MutableMap<ClusterDescriptor, V1StatefulSet>,
-        jobmanagerPersistentVolumeClaims: MutableMap<ClusterDescriptor, V1PersistentVolumeClaim>,
-        taskmanagerPersistentVolumeClaims: MutableMap<ClusterDescriptor, V1PersistentVolumeClaim>
-    ) {
-        val pendingDeleteClusters = mutableMapOf<ClusterDescriptor, ClusterDescriptor>()
+    private fun upgrade(descriptor: ClusterDescriptor, cluster: V1FlinkCluster, resources: ClusterResources, currentClusterConfig: ClusterConfig?, desiredState: DesiredState): String {
+        val clusterConfig = desiredState.clusterConfig
 
-        services.forEach { descriptor, service ->
-            if (pendingDeleteClusters.get(descriptor) == null && flinkClusters.get(descriptor) == null) {
-                logger.info("Deleting orphan cluster ${descriptor.name}...")
+        if (currentClusterConfig != null && ClusterUpdateHandler.canUpdate(currentClusterConfig, clusterConfig)) {
+            logger.info("Updating cluster ${clusterConfig.descriptor.name}...")
 
-                ClusterDeleteHandler.execute(descriptor)
+            ClusterUpdateHandler.execute(currentClusterConfig, clusterConfig, resources)
 
-                pendingDeleteClusters.put(descriptor, descriptor)
-            }
+            return expect(descriptor, desiredState, "Updating")
         }
 
-        deployments.forEach { descriptor, deployment ->
-            if (pendingDeleteClusters.get(descriptor) == null && flinkClusters.get(descriptor) == null) {
-                logger.info("Deleting orphan cluster ${descriptor.name}...")
+        return recreate(descriptor, cluster, desiredState)
+    }
 
-                ClusterDeleteHandler.execute(descriptor)
+    private fun recreate(descriptor: ClusterDescriptor, cluster: V1FlinkCluster, desiredState: DesiredState): String {
+        val clusterConfig = desiredState.clusterConfig
 
-                pendingDeleteClusters.put(descriptor, descriptor)
-            }
+        if (!delete(descriptor)) {
+            return "Deleting"
         }
 
-        jobmanagerStatefulSets.forEach { descriptor, statefulSet ->
-            if (pendingDeleteClusters.get(descriptor) == null && flinkClusters.get(descriptor) == null) {
-                logger.info("Deleting orphan cluster ${descriptor.name}...")
+        logger.info("Creating cluster ${clusterConfig.descriptor.name}...")
+
+        ClusterCreateHandler.execute("flink-operator", clusterConfig, createOwnerReference(cluster))
 
-                ClusterDeleteHandler.execute(descriptor)
+        return expect(descriptor, desiredState, "Creating")
+    }
+
+    // returns true when all the resources of the cluster are gone, the deletion is polled from the queue
+    private fun delete(descriptor: ClusterDescriptor): Boolean {
+        val deadline = deletions.get(descriptor)
 
-                pendingDeleteClusters.put(descriptor, descriptor)
+        if (deadline == null || deadline < System.currentTimeMillis()) {
+            if (deadline != null) {
+                logger.warn("Cluster ${descriptor.name} wasn't deleted in time. Deleting again...")
             }
+
+            ClusterDeleteHandler.deleteResources(descriptor)
+
+            deletions.put(descriptor, System.currentTimeMillis() + deletionTimeout)
+
+            queue.addAfter(descriptor, deletionPollInterval)
+
+            return false
+        }
+
+        val remainingKinds = cache.getOwnedKinds(descriptor) - volumeClaimKinds
+
+        if (remainingKinds.isNotEmpty() || cache.getPods(descriptor).isNotEmpty() || ClusterDeleteHandler.hasAnchor(descriptor)) {
+            queue.addAfter(descriptor, deletionPollInterval)
+
+            return false
+        }
+
+        if (ClusterDeleteHandler.hasPersistentVolumeClaims(descriptor)) {
+            ClusterDeleteHandler.deletePersistentVolumeClaims(descriptor)
+
+            queue.addAfter(descriptor, deletionPollInterval)
+
+            return false
         }
 
-        taskmanagerStatefulSets.forEach { descriptor, statefulSet ->
-            if (pendingDeleteClusters.get(descriptor) == null && flinkClusters.get(descriptor) == null) {
-                logger.info("Deleting orphan cluster ${descriptor.name}...")
+        logger.info("Cluster ${descriptor.name} deleted")
+
+        deletions.remove(descriptor)
+
+        return true
+    }
+
+    private fun scale(descriptor: ClusterDescriptor, resources: ClusterResources, currentClusterConfig: ClusterConfig, desiredState: DesiredState): String {
+        val clusterConfig = desiredState.clusterConfig
+
+        val replicas = clusterConfig.taskmanager.replicas
+
+        if (replicas < currentClusterConfig.taskmanager.replicas && !autoscaler.release(descriptor, replicas * clusterConfig.taskmanager.taskSlots)) {
+            queue.addAfter(descriptor, savepointPollInterval)
+
+            return "Rescaling"
+        }
+
+        logger.info("Scaling cluster ${clusterConfig.descriptor.name} to $replicas TaskManagers...")
+
+        ClusterUpdateHandler.scale(clusterConfig, resources)
+
+        if (replicas > currentClusterConfig.taskmanager.replicas) {
+            autoscaler.requestRescale(descriptor)
+        }
+
+        return expect(descriptor, desiredState, "Scaling")
+    }
 
-                ClusterDeleteHandler.execute(descriptor)
+    // returns true when the job has been stopped with a savepoint, or when there is no job to stop
+    private fun savepoint(descriptor: ClusterDescriptor, cluster: V1FlinkCluster, status: V1FlinkClusterStatus): Boolean {
+        val savepointJobId = status.savepointJobId
+        val savepointTriggerId = status.savepointTriggerId
 
-                pendingDeleteClusters.put(descriptor, descriptor)
+        if (status.savepointStatus == "InProgress" && savepointJobId != null && savepointTriggerId != null) {
+            if (System.currentTimeMillis() - (status.savepointTimestamp ?: 0) > savepointTimeout) {
+                status.setSavepointStatus("Failed")
+
+                throw RuntimeException("Savepoint of job $savepointJobId didn't complete in time")
+            }
+
+            val location = try {
+                ClusterSavepointHandler.query(null, false, descriptor, SavepointRequest(jobId = savepointJobId, triggerId = savepointTriggerId))
+            } catch (e: Exception) {
+                status.setSavepointStatus("Failed")
+
+                throw e
             }
+
+            if (location == null) {
+                return false
+            }
+
+            status.setSavepointStatus("Completed").setLastSavepoint(location).setLastSavepointOrigin(originOf(cluster.spec))
+
+            return true
         }
 
-        jobmanagerPersistentVolumeClaims.forEach { descriptor, persistentVolumeClaims ->
-            if (pendingDeleteClusters.get(descriptor) == null && flinkClusters.get(descriptor) == null) {
-                logger.info("Deleting orphan cluster ${descriptor.name}...")
+        val jobId = ClusterSavepointHandler.runningJob(null, false, descriptor)
 
-                ClusterDeleteHandler.execute(descriptor)
+        if (jobId == null) {
+            // a savepoint triggered before the operator could record it might have cancelled the job
+            if (status.savepointStatus == "Triggering" || status.savepointStatus == "Lost") {
+                if (status.savepointOrigin == originOf(cluster.spec)) {
+                    status.setSavepointStatus("Lost")
+
+                    throw RuntimeException("Job ${status.savepointJobId} was stopped by a savepoint which can't be tracked. Set sidecarSavepoint to the savepoint to restore")
+                }
 
-                pendingDeleteClusters.put(descriptor, descriptor)
+                status.setSavepointStatus("Skipped")
             }
+
+            return true
         }
 
-        taskmanagerPersistentVolumeClaims.forEach { descriptor, persistentVolumeClaims ->
-            if (pendingDeleteClusters.get(descriptor) == null && flinkClusters.get(descriptor) == null) {
-                logger.info("Deleting orphan cluster ${descriptor.name}...")
+        status.setSavepointJobId(jobId)
+            .setSavepointTimestamp(System.currentTimeMillis())
+            .setSavepointOrigin(originOf(cluster.spec))
+            .setSavepointStatus("Triggering")
+
+        statusWriter.write(cluster, status)
 
-                ClusterDeleteHandler.execute(descriptor)
+        val request = ClusterSavepointHandler.trigger(null, false, descriptor, jobId)
 
-                pendingDeleteClusters.put(descriptor, descriptor)
+        status.setSavepointTriggerId(request.triggerId).setSavepointStatus("InProgress")
+
+        return false
+    }
+
+    private fun isSavepointPending(status: V1FlinkClusterStatus) =
+        status.savepointStatus == "Triggering" || status.savepointStatus == "InProgress" || status.savepointStatus == "Lost"
+
+    // the last savepoint is used until the user writes a different savepoint into the spec
+    private fun savepointOf(spec: V1FlinkClusterSpec, status: V1FlinkClusterStatus) =
+        if (status.lastSavepoint != null && (status.lastSavepointOrigin ?: "") == originOf(spec)) status.lastSavepoint else spec.sidecarSavepoint
+
+    // the status is written with a merge patch which skips null values, therefore no savepoint is recorded as empty string
+    private fun originOf(spec: V1FlinkClusterSpec) = spec.sidecarSavepoint ?: ""
+
+    private fun isSavepointRequired(currentClusterConfig: ClusterConfig, targetClusterConfig: ClusterConfig) =
+        currentClusterConfig.sidecar.jarPath != null && !isReplicasOnly(currentClusterConfig, targetClusterConfig)
+
+    // a job can't be rescaled to zero slots, therefore scaling a cluster which runs a job to zero TaskManagers requires a savepoint
+    private fun isReplicasOnly(currentClusterConfig: ClusterConfig, targetClusterConfig: ClusterConfig) =
+        (targetClusterConfig.taskmanager.replicas > 0 || currentClusterConfig.sidecar.jarPath == null) &&
+        currentClusterConfig.copy(taskmanager = currentClusterConfig.taskmanager.copy(replicas = targetClusterConfig.taskmanager.replicas)) == targetClusterConfig
+
+    // clusters found in the snapshot are reconciled again, but the expectations prevent restarting the rollouts in progress
+    private fun restoreSnapshot(snapshot: OperatorSnapshot, informers: Map<String, ResourceInformer<*, *>>) {
+        logger.info("Restoring snapshot taken ${(System.currentTimeMillis() - snapshot.timestamp) / 1000} seconds ago...")
+
+        val gson = JSON().gson
+
+        informers.forEach { (key, informer) ->
+            snapshot.informers.get(key)?.let { informerSnapshot ->
+                try {
+                    informer.restore(gson, informerSnapshot)
+                } catch (e: Exception) {
+                    logger.warn("Can't restore $key resources: ${e.message}")
+                }
             }
         }
+
+        val timestamp = System.currentTimeMillis()
+
+        snapshot.expectations
+            .filter { it.expectation.deadline > timestamp }
+            .forEach { expectations.put(it.descriptor, it.expectation) }
     }
 
-    private fun hasDiverged(
-        targetClusterConfig: ClusterConfig,
-        deployments: MutableMap<ClusterDescriptor, V1Deployment>,
-        jobmanagerStatefulSets: MutableMap<ClusterDescriptor, V1StatefulSet>,
-        taskmanagerStatefulSets: MutableMap<ClusterDescriptor, V1StatefulSet>,
-        services: MutableMap<ClusterDescriptor, V1Service>,
-        jobmanagerPersistentVolumeClaims: MutableMap<ClusterDescriptor, V1PersistentVolumeClaim>,
-        taskmanagerPersistentVolumeClaims: MutableMap<ClusterDescriptor, V1PersistentVolumeClaim>
-    ) : Boolean {
-        val service = services.get(targetClusterConfig.descriptor)
-        val deployment = deployments.get(targetClusterConfig.descriptor)
-        val jobmanagerStatefulSet = jobmanagerStatefulSets.get(targetClusterConfig.descriptor)
-        val taskmanagerStatefulSet = taskmanagerStatefulSets.get(targetClusterConfig.descriptor)
-        val jobmanagerPersistentVolumeClaim = jobmanagerPersistentVolumeClaims.get(targetClusterConfig.descriptor)
-        val taskmanagerPersistentVolumeClaim = taskmanagerPersistentVolumeClaims.get(targetClusterConfig.descriptor)
+    private fun scheduleSnapshots(store: OperatorSnapshotStore, informers: Map<String, ResourceInformer<*, *>>, interval: Long) {
+        val gson = JSON().gson
+
+        val writeSnapshot = {
+            val snapshot = OperatorSnapshot(
+                timestamp = System.currentTimeMillis(),
+                informers = informers.mapNotNull { (key, informer) -> informer.snapshot(gson)?.let { key to it } }.toMap(),
+                expectations = expectations.map { (descriptor, expectation) -> ExpectationSnapshot(descriptor, expectation) }
+            )
+
+            store.write(snapshot)
+        }
+
+        val scheduler = Executors.newSingleThreadScheduledExecutor { runnable ->
+            val thread = Thread(runnable, "snapshot-scheduler")
+            thread.isDaemon = true
+            thread
+        }
+
+        scheduler.scheduleWithFixedDelay(writeSnapshot, interval, interval, TimeUnit.SECONDS)
+
+        Runtime.getRuntime().addShutdownHook(Thread(writeSnapshot))
+    }
+
+    private fun scheduleAutoscaling(interval: Long) {
+        val scheduler = Executors.newSingleThreadScheduledExecutor { runnable ->
+            val thread = Thread(runnable, "autoscale-scheduler")
+            thread.isDaemon = true
+            thread
+        }
+
+        scheduler.scheduleWithFixedDelay({
+            cache.getFlinkClusters()
+                .filter { (descriptor, cluster) -> isOwned(descriptor) && (cluster.spec.taskmanagerAutoscaling == true || autoscaler.isRescalePending(descriptor)) }
+                .forEach { (descriptor, _) -> autoscaleQueue.add(descriptor) }
+        }, interval, interval, TimeUnit.SECONDS)
+    }
+
+    private fun autoscale(descriptor: ClusterDescriptor) {
+        val cluster = cache.getFlinkCluster(descriptor)
+
+        if (cluster == null) {
+            return
+        }
+
+        if (diverged.contains(descriptor) || statusWriter.current(cluster)?.phase != "Running") {
+            return
+        }
+
+        autoscaler.rescalePending(descriptor, cluster)
+
+        if (cluster.spec.taskmanagerAutoscaling == true) {
+            autoscaler.autoscale(descriptor, cluster)
+        }
+    }
+
+    private fun reconcileTimerName(descriptor: ClusterDescriptor) = OperatorMetrics.name(
+        "reconcile.duration",
+        "namespace" to descriptor.namespace,
+        "cluster" to descriptor.name,
+        "environment" to descriptor.environment
+    )
+
+    private fun createOwnerReference(cluster: V1FlinkCluster) = V1OwnerReference()
+        .apiVersion(cluster.apiVersion ?: "beta.nextbreakpoint.com/v1")
+        .kind(cluster.kind ?: "FlinkCluster")
+        .name(cluster.metadata.name)
+        .uid(cluster.metadata.uid)
+
+    private fun expect(descriptor: ClusterDescriptor, desiredState: DesiredState, phase: String): String {
+        expectations.put(descriptor, ClusterExpectation(desiredState.hash, desiredState.clusterConfig.taskmanager.replicas, phase, System.currentTimeMillis() + expectationTimeout))
+
+        return phase
+    }
+
+    private fun isUnchanged(hash: String, clusterConfig: ClusterConfig, resources: ClusterResources) =
+        resources.taskmanagerStatefulSet?.replicas == clusterConfig.taskmanager.replicas &&
+        resources.jobmanagerPersistentVolumeClaim != null &&
+        (resources.taskmanagerPersistentVolumeClaim != null || clusterConfig.taskmanager.replicas == 0) &&
+        hash == resources.service?.metadata?.annotations?.get(ClusterConfigHash.ANNOTATION) &&
+        hash == resources.deployment?.metadata?.annotations?.get(ClusterConfigHash.ANNOTATION) &&
+        hash == resources.jobmanagerStatefulSet?.metadata?.annotations?.get(ClusterConfigHash.ANNOTATION) &&
+        hash == resources.taskmanagerStatefulSet.metadata.annotations?.get(ClusterConfigHash.ANNOTATION)
+
+    private fun currentClusterConfig(targetClusterConfig: ClusterConfig, resources: ClusterResources) : ClusterConfig? {
+        val service = resources.service
+        val deployment = resources.deployment
+        val jobmanagerStatefulSet = resources.jobmanagerStatefulSet
+        val taskmanagerStatefulSet = resources.taskmanagerStatefulSet
+        val jobmanagerPersistentVolumeClaim = resources.jobmanagerPersistentVolumeClaim
+        val taskmanagerPersistentVolumeClaim = resources.taskmanagerPersistentVolumeClaim
 
         if (service == null) {
-            return true
+            return null
         }
 
         if (deployment == null) {
-            return true
+            return null
         }
 
         if (jobmanagerStatefulSet == null) {
-            return true
+            return null
         }
 
         if (taskmanagerStatefulSet == null) {
-            return true
+            return null
         }
 
         if (jobmanagerPersistentVolumeClaim == null) {
-            return true
+            return null
         }
 
-        if (taskmanagerPersistentVolumeClaim == null) {
-            return true
+        // a cluster without TaskManagers, for instance a suspended cluster or a cluster scaled to zero, might have no TaskManager volume
+        val taskmanagerVolumeRequired = targetClusterConfig.taskmanager.replicas > 0 && taskmanagerStatefulSet.replicas != 0
+
+        if (taskmanagerPersistentVolumeClaim == null && taskmanagerVolumeRequired) {
+            return null
         }
 
-        if (deployment.spec.template.spec.containers.size != 1) {
-            return true
+        if (deployment.containers.size != 1) {
+            return null
         }
 
         if (deployment.metadata.labels.get("cluster") == null) {
-            return true
+            return null
         }
 
         if (deployment.metadata.labels.get("component") == null) {
-            return true
+            return null
         }
 
         if (deployment.metadata.labels.get("environment") == null) {
-            return true
+            return null
         }
 
         if (service.metadata.labels.get("cluster") == null) {
-            return true
+            return null
         }
 
         if (service.metadata.labels.get("role") == null) {
-            return true
+            return null
         }
 
         if (service.metadata.labels.get("component") == null) {
-            return true
+            return null
         }
 
         if (service.metadata.labels.get("environment") == null) {
-            return true
+            return null
         }
 
         if (jobmanagerStatefulSet.metadata.labels.get("cluster") == null) {
-            return true
+            return null
         }
 
         if (jobmanagerStatefulSet.metadata.labels.get("role") == null) {
-            return true
+            return null
         }
 
         if (jobmanagerStatefulSet.metadata.labels.get("component") == null) {
-            return true
+            return null
         }
 
         if (jobmanagerStatefulSet.metadata.labels.get("environment") == null) {
-            return true
+            return null
         }
 
         if (taskmanagerStatefulSet.metadata.labels.get("cluster") == null) {
-            return true
+            return null
         }
 
         if (taskmanagerStatefulSet.metadata.labels.get("role") == null) {
-            return true
+            return null
         }
 
         if (taskmanagerStatefulSet.metadata.labels.get("component") == null) {
-            return true
+            return null
         }
 
         if (taskmanagerStatefulSet.metadata.labels.get("environment") == null) {
-            return true
+            return null
         }
 
         if (jobmanagerPersistentVolumeClaim.metadata.labels.get("cluster") == null) {
-            return true
+            return null
         }
 
         if (jobmanagerPersistentVolumeClaim.metadata.labels.get("role") == null) {
-            return true
+            return null
         }
 
         if (jobmanagerPersistentVolumeClaim.metadata.labels.get("component") == null) {
-            return true
+            return null
         }
 
         if (jobmanagerPersistentVolumeClaim.metadata.labels.get("environment") == null) {
-            return true
+            return null
         }
 
-        if (taskmanagerPersistentVolumeClaim.metadata.labels.get("cluster") == null) {
-            return true
-        }
+        if (taskmanagerPersistentVolumeClaim != null) {
+            if (taskmanagerPersistentVolumeClaim.metadata.labels.get("cluster") == null) {
+                return null
+            }
 
-        if (taskmanagerPersistentVolumeClaim.metadata.labels.get("role") == null) {
-            return true
-        }
+            if (taskmanagerPersistentVolumeClaim.metadata.labels.get("role") == null) {
+                return null
+            }
 
-        if (taskmanagerPersistentVolumeClaim.metadata.labels.get("component") == null) {
-            return true
-        }
+            if (taskmanagerPersistentVolumeClaim.metadata.labels.get("component") == null) {
+                return null
+            }
 
-        if (taskmanagerPersistentVolumeClaim.metadata.labels.get("environment") == null) {
-            return true
+            if (taskmanagerPersistentVolumeClaim.metadata.labels.get("environment") == null) {
+                return null
+            }
         }
 
-        val sidecarImage = deployment.spec.template.spec.containers.get(0).image
-        val sidecarPullPolicy = deployment.spec.template.spec.containers.get(0).imagePullPolicy
-        val sidecarServiceAccount = deployment.spec.template.spec.serviceAccount
+        val sidecarImage = deployment.containers.get(0).image
+        val sidecarPullPolicy = deployment.containers.get(0).pullPolicy
+        val sidecarServiceAccount = deployment.serviceAccount
 
-        val containerArguments = deployment.spec.template.spec.containers.get(0).args
+        val containerArguments = deployment.containers.get(0).arguments
 
         if (containerArguments.get(0) != "sidecar") {
             logger.warn("Sidecar argument are: ${containerArguments.joinToString(" ")}}")
-            return true
+            return null
         }
 
         if (containerArguments.get(1) != "submit" && containerArguments.get(1) != "watch") {
             logger.warn("Sidecar argument are: ${containerArguments.joinToString(" ")}}")
-            return true
+            return null
         }
 
         val sidecarNamespace = containerArguments.filter{ it.startsWith("--namespace") }.map { it.substringAfter("=") }.firstOrNull()
@@ -550,125 +987,115 @@ class RunOperator {
 
         if (sidecarNamespace == null || sidecarNamespace != targetClusterConfig.descriptor.namespace) {
             logger.warn("Sidecar argument are: ${containerArguments.joinToString(" ")}}")
-            return true
+            return null
         }
 
         if (sidecarEnvironment == null || sidecarEnvironment != targetClusterConfig.descriptor.environment) {
             logger.warn("Sidecar argument are: ${containerArguments.joinToString(" ")}}")
-            return true
+            return null
         }
 
         if (sidecarClusterName == null || sidecarClusterName != targetClusterConfig.descriptor.name) {
             logger.warn("Sidecar argument are: ${containerArguments.joinToString(" ")}}")
-            return true
+            return null
         }
 
         if (containerArguments.get(1) == "submit" && sidecarJarPath == null) {
             logger.warn("Sidecar argument are: ${containerArguments.joinToString(" ")}}")
-            return true
+            return null
         }
 
         val sidecarArguments = containerArguments.filter{ it.startsWith("--argument") }.map { it.substringAfter("=") }.toList()
 
-        val pullSecrets = if (deployment.spec.template.spec.imagePullSecrets != null && !deployment.spec.template.spec.imagePullSecrets.isEmpty()) deployment.spec.template.spec.imagePullSecrets.get(0).name else null
+        val pullSecrets = deployment.pullSecrets
 
-        if (jobmanagerStatefulSet.spec.template.spec.containers.size != 1) {
-            return true
+        if (jobmanagerStatefulSet.containers.size != 1) {
+            return null
         }
 
-        val jobmanagerImage = jobmanagerStatefulSet.spec.template.spec.containers.get(0).image
-        val jobmanagerPullPolicy = jobmanagerStatefulSet.spec.template.spec.containers.get(0).imagePullPolicy
-        val jobmanagerServiceAccount = jobmanagerStatefulSet.spec.template.spec.serviceAccount
+        val jobmanagerImage = jobmanagerStatefulSet.containers.get(0).image
+        val jobmanagerPullPolicy = jobmanagerStatefulSet.containers.get(0).pullPolicy
+        val jobmanagerServiceAccount = jobmanagerStatefulSet.serviceAccount
 
-        val jobmanagerCpuQuantity = jobmanagerStatefulSet.spec.template.spec.containers.get(0).resources.limits.get("cpu")
+        val jobmanagerCpu = jobmanagerStatefulSet.containers.get(0).cpus
 
-        if (jobmanagerCpuQuantity == null) {
-            return true
+        if (jobmanagerCpu == null) {
+            return null
         }
 
-        val jobmanagerCpu = jobmanagerCpuQuantity.number.toFloat()
-
-        if (jobmanagerStatefulSet.spec.volumeClaimTemplates.size != 1) {
-            return true
+        if (jobmanagerStatefulSet.volumeClaims.size != 1) {
+            return null
         }
 
-        val jobmanagerStorageClassName = jobmanagerStatefulSet.spec.volumeClaimTemplates.get(0).spec.storageClassName
-        val jobmanagerStorageSizeQuantity = jobmanagerStatefulSet.spec.volumeClaimTemplates.get(0).spec.resources.requests.get("storage")
+        val jobmanagerStorageClassName = jobmanagerStatefulSet.volumeClaims.get(0).storageClass
+        val jobmanagerStorageSize = jobmanagerStatefulSet.volumeClaims.get(0).size
 
-        if (jobmanagerStorageSizeQuantity == null) {
-            return true
+        if (jobmanagerStorageSize == null) {
+            return null
         }
 
-        val jobmanagerStorageSize = jobmanagerStorageSizeQuantity.number.toInt()
-
-        if (taskmanagerStatefulSet.spec.template.spec.containers.size != 1) {
-            return true
+        if (taskmanagerStatefulSet.containers.size != 1) {
+            return null
         }
 
-        val taskmanagerImage = taskmanagerStatefulSet.spec.template.spec.containers.get(0).image
-        val taskmanagerPullPolicy = taskmanagerStatefulSet.spec.template.spec.containers.get(0).imagePullPolicy
-        val taskmanagerServiceAccount = taskmanagerStatefulSet.spec.template.spec.serviceAccount
+        val taskmanagerImage = taskmanagerStatefulSet.containers.get(0).image
+        val taskmanagerPullPolicy = taskmanagerStatefulSet.containers.get(0).pullPolicy
+        val taskmanagerServiceAccount = taskmanagerStatefulSet.serviceAccount
 
-        val taskmanagerCpuQuantity = taskmanagerStatefulSet.spec.template.spec.containers.get(0).resources.limits.get("cpu")
+        val taskmanagerCpu = taskmanagerStatefulSet.containers.get(0).cpus
 
-        if (taskmanagerCpuQuantity == null) {
-            return true
+        if (taskmanagerCpu == null) {
+            return null
         }
 
-        val taskmanagerCpu = taskmanagerCpuQuantity.number.toFloat()
-
-        if (taskmanagerStatefulSet.spec.volumeClaimTemplates.size != 1) {
-            return true
+        if (taskmanagerStatefulSet.volumeClaims.size != 1) {
+            return null
         }
 
-        val taskmanagerStorageClassName = taskmanagerStatefulSet.spec.volumeClaimTemplates.get(0).spec.storageClassName
-        val taskmanagerStorageSizeQuantity = taskmanagerStatefulSet.spec.volumeClaimTemplates.get(0).spec.resources.requests.get("storage")
+        val taskmanagerStorageClassName = taskmanagerStatefulSet.volumeClaims.get(0).storageClass
+        val taskmanagerStorageSize = taskmanagerStatefulSet.volumeClaims.get(0).size
 
-        if (taskmanagerStorageSizeQuantity == null) {
-            return true
+        if (taskmanagerStorageSize == null) {
+            return null
         }
 
-        val taskmanagerStorageSize = taskmanagerStorageSizeQuantity.number.toInt()
-
-        val taskmanagerReplicas = taskmanagerStatefulSet.spec.replicas
+        val taskmanagerReplicas = taskmanagerStatefulSet.replicas ?: 1
 
         val environment = jobmanagerStatefulSet.metadata.labels.get("environment").orEmpty()
 
-        val jobmanagerMemoryEnvVar = jobmanagerStatefulSet.spec.template.spec.containers.get(0).env.filter { it.name == "FLINK_JM_HEAP" }.firstOrNull()
+        val jobmanagerMemoryEnvVar = jobmanagerStatefulSet.containers.get(0).environmentVariables.filter { it.name == "FLINK_JM_HEAP" }.firstOrNull()
 
         if (jobmanagerMemoryEnvVar == null) {
-            return true
+            return null
         }
 
-        val taskmanagerMemoryEnvVar = taskmanagerStatefulSet.spec.template.spec.containers.get(0).env.filter { it.name == "FLINK_TM_HEAP" }.firstOrNull()
+        val taskmanagerMemoryEnvVar = taskmanagerStatefulSet.containers.get(0).environmentVariables.filter { it.name == "FLINK_TM_HEAP" }.firstOrNull()
 
         if (taskmanagerMemoryEnvVar == null) {
-            return true
+            return null
         }
 
-        val taskmanagerTaskSlotsEnvVar = taskmanagerStatefulSet.spec.template.spec.containers.get(0).env.filter { it.name == "TASK_MANAGER_NUMBER_OF_TASK_SLOTS" }.firstOrNull()
+        val taskmanagerTaskSlotsEnvVar = taskmanagerStatefulSet.containers.get(0).environmentVariables.filter { it.name == "TASK_MANAGER_NUMBER_OF_TASK_SLOTS" }.firstOrNull()
 
         if (taskmanagerTaskSlotsEnvVar == null) {
-            return true
+            return null
         }
 
-        val jobmanagerEnvironmentVariables = jobmanagerStatefulSet.spec.template.spec.containers.get(0).env
+        val jobmanagerEnvironmentVariables = jobmanagerStatefulSet.containers.get(0).environmentVariables
             .filter { it.name != "JOB_MANAGER_RPC_ADDRESS" }
             .filter { it.name != "FLINK_JM_HEAP" }
             .filter { it.name != "FLINK_ENVIRONMENT" }
             .filter { it.name != "POD_NAMESPACE" }
             .filter { it.name != "POD_NAME" }
-            .map { EnvironmentVariable(it.name, it.value) }
             .toList()
 
-        val taskmanagerEnvironmentVariables = taskmanagerStatefulSet.spec.template.spec.containers.get(0).env
+        val taskmanagerEnvironmentVariables = taskmanagerStatefulSet.containers.get(0).environmentVariables
             .filter { it.name != "JOB_MANAGER_RPC_ADDRESS" }
             .filter { it.name != "FLINK_TM_HEAP" }
             .filter { it.name != "FLINK_ENVIRONMENT" }
             .filter { it.name != "TASK_MANAGER_NUMBER_OF_TASK_SLOTS" }
             .filter { it.name != "POD_NAMESPACE" }
             .filter { it.name != "POD_NAME" }
-            .map { EnvironmentVariable(it.name, it.value) }
             .toList()
 
         val jobmanagerMemory = jobmanagerMemoryEnvVar.value.toInt()
@@ -677,7 +1104,55 @@ class RunOperator {
 
         val taskmanagerTaskSlots = taskmanagerTaskSlotsEnvVar.value.toInt()
 
-        val serviceMode = service.spec.type
+        val serviceMode = service.type
+
+        if (serviceMode == null) {
+            return null
+        }
+
+        if (jobmanagerImage == null) {
+            return null
+        }
+
+        if (jobmanagerPullPolicy == null) {
+            return null
+        }
+
+        if (jobmanagerServiceAccount == null) {
+            return null
+        }
+
+        if (jobmanagerStorageClassName == null) {
+            return null
+        }
+
+        if (taskmanagerImage == null) {
+            return null
+        }
+
+        if (taskmanagerPullPolicy == null) {
+            return null
+        }
+
+        if (taskmanagerServiceAccount == null) {
+            return null
+        }
+
+        if (taskmanagerStorageClassName == null) {
+            return null
+        }
+
+        if (sidecarImage == null) {
+            return null
+        }
+
+        if (sidecarPullPolicy == null) {
+            return null
+        }
+
+        if (sidecarServiceAccount == null) {
+            return null
+        }
 
         val clusterConfig = ClusterConfig(
             descriptor = ClusterDescriptor(
@@ -731,20 +1206,16 @@ class RunOperator {
             )
         )
 
-        val diverged = clusterConfig.equals(targetClusterConfig).not()
-
-        if (diverged) {
-            logger.info("Current config: $clusterConfig")
-            logger.info("Desired config: $targetClusterConfig")
-        }
-
-        return diverged
+        return clusterConfig
     }
 
     private fun createClusterConfig(
         metadata: V1ObjectMeta,
-        spec: V1FlinkClusterSpec
+        spec: V1FlinkClusterSpec,
+        savepoint: String?
     ): ClusterConfig {
+        val suspended = spec.suspended == true
+
         val clusterConfig = ClusterConfig(
             descriptor = ClusterDescriptor(
                 namespace = metadata.namespace,
@@ -773,7 +1244,7 @@ class RunOperator {
                 pullPolicy = spec.pullPolicy ?: "Always",
                 serviceAccount = spec.taskmanagerServiceAccount ?: "default",
                 environmentVariables = spec.taskmanagerEnvironmentVariables?.map { EnvironmentVariable(it.name, it.value) }?.toList() ?: listOf(),
-                replicas = spec.taskmanagerReplicas ?: 1,
+                replicas = if (suspended) 0 else spec.taskmanagerReplicas ?: 1,
                 taskSlots = spec.taskmanagerTaskSlots ?: 1,
                 resources = ResourcesConfig(
                     cpus = spec.taskmanagerCpus ?: 1f,
@@ -790,8 +1261,8 @@ class RunOperator {
                 pullPolicy = spec.pullPolicy ?: "Always",
                 serviceAccount = spec.sidecarServiceAccount ?: "default",
                 className = spec.sidecarClassName,
-                jarPath = spec.sidecarJarPath,
-                savepoint = spec.sidecarSavepoint,
+                jarPath = if (suspended) null else spec.sidecarJarPath,
+                savepoint = savepoint,
                 arguments = spec.sidecarArguments?.joinToString(" "),
                 parallelism = spec.sidecarParallelism ?: 1
             )
@@ -799,9 +1270,8 @@ class RunOperator {
         return clusterConfig
     }
 
-    private fun watchFlickClusterResources(namespace: String, objectApi: CustomObjectsApi): Watch<V1FlinkCluster> =
-        Watch.createWatch<V1FlinkCluster>(
-            Configuration.getDefaultApiClient(),
+    private fun listFlinkClusterResources(namespace: String?, objectApi: CustomObjectsApi): ResourcePage<V1FlinkCluster> {
+        val call = if (namespace != null) {
             objectApi.listNamespacedCustomObjectCall(
                 "beta.nextbreakpoint.com",
                 "v1",
@@ -810,90 +1280,396 @@ class RunOperator {
                 null,
                 null,
                 null,
-                true,
+                null,
                 null,
                 null
-            ),
-            object : TypeToken<Watch.Response<V1FlinkCluster>>() {}.type
+            )
+        } else {
+            objectApi.listClusterCustomObjectCall(
+                "beta.nextbreakpoint.com",
+                "v1",
+                "flinkclusters",
+                null,
+                null,
+                null,
+                null,
+                null,
+                null
+            )
+        }
+
+        val response = Configuration.getDefaultApiClient().execute<V1FlinkClusterList>(
+            call,
+            object : TypeToken<V1FlinkClusterList>() {}.type
         )
 
-    private fun watchServiceResources(namespace: String, coreApi: CoreV1Api): Watch<V1Service> =
-        Watch.createWatch<V1Service>(
-            Configuration.getDefaultApiClient(),
-            coreApi.listNamespacedServiceCall(
+        return ResourcePage(response.data.items, response.data.metadata.resourceVersion, null)
+    }
+
+    private fun listServiceResources(namespace: String?, coreApi: CoreV1Api, continueToken: String?): ResourcePage<V1Service> {
+        val response = if (namespace != null) {
+            coreApi.listNamespacedService(
                 namespace,
                 null,
                 null,
-                null,
+                continueToken,
                 null,
                 "component=flink,owner=flink-operator",
+                100,
                 null,
+                30,
+                null
+            )
+        } else {
+            coreApi.listServiceForAllNamespaces(
+                continueToken,
                 null,
-                600,
-                true,
                 null,
+                "component=flink,owner=flink-operator",
+                100,
+                null,
+                null,
+                30,
                 null
-            ),
-            object : TypeToken<Watch.Response<V1Service>>() {}.type
-        )
+            )
+        }
 
-    private fun watchDeploymentResources(namespace: String, appsApi: AppsV1Api): Watch<V1Deployment> =
-        Watch.createWatch<V1Deployment>(
-            Configuration.getDefaultApiClient(),
-            appsApi.listNamespacedDeploymentCall(
+        return ResourcePage(response.items, response.metadata.resourceVersion, response.metadata.`continue`)
+    }
+
+    private fun listDeploymentResources(namespace: String?, appsApi: AppsV1Api, continueToken: String?): ResourcePage<V1Deployment> {
+        val response = if (namespace != null) {
+            appsApi.listNamespacedDeployment(
                 namespace,
                 null,
                 null,
-                null,
+                continueToken,
                 null,
                 "component=flink,owner=flink-operator",
+                100,
                 null,
+                30,
+                null
+            )
+        } else {
+            appsApi.listDeploymentForAllNamespaces(
+                continueToken,
+                null,
+                null,
+                "component=flink,owner=flink-operator",
+                100,
                 null,
-                600,
-                true,
                 null,
+                30,
                 null
-            ),
-            object : TypeToken<Watch.Response<V1Deployment>>() {}.type
-        )
+            )
+        }
 
-    private fun watchStatefulSetResources(namespace: String, appsApi: AppsV1Api): Watch<V1StatefulSet> =
-        Watch.createWatch<V1StatefulSet>(
-            Configuration.getDefaultApiClient(),
-            appsApi.listNamespacedStatefulSetCall(
+        return ResourcePage(response.items, response.metadata.resourceVersion, response.metadata.`continue`)
+    }
+
+    private fun listStatefulSetResources(namespace: String?, appsApi: AppsV1Api, continueToken: String?): ResourcePage<V1StatefulSet> {
+        val response = if (namespace != null) {
+            appsApi.listNamespacedStatefulSet(
                 namespace,
                 null,
                 null,
-                null,
+                continueToken,
                 null,
                 "component=flink,owner=flink-operator",
+                100,
+                null,
+                30,
+                null
+            )
+        } else {
+            appsApi.listStatefulSetForAllNamespaces(
+                continueToken,
+                null,
                 null,
+                "component=flink,owner=flink-operator",
+                100,
                 null,
-                600,
-                true,
                 null,
+                30,
                 null
-            ),
-            object : TypeToken<Watch.Response<V1StatefulSet>>() {}.type
-        )
+            )
+        }
 
-    private fun watchPermanentVolumeClaimResources(namespace: String, coreApi: CoreV1Api): Watch<V1PersistentVolumeClaim> =
-        Watch.createWatch<V1PersistentVolumeClaim>(
-            Configuration.getDefaultApiClient(),
-            coreApi.listNamespacedPersistentVolumeClaimCall(
+        return ResourcePage(response.items, response.metadata.resourceVersion, response.metadata.`continue`)
+    }
+
+    private fun listPermanentVolumeClaimResources(namespace: String?, coreApi: CoreV1Api, continueToken: String?): ResourcePage<V1PersistentVolumeClaim> {
+        val response = if (namespace != null) {
+            coreApi.listNamespacedPersistentVolumeClaim(
                 namespace,
                 null,
                 null,
+                continueToken,
+                null,
+                "component=flink,owner=flink-operator",
+                100,
+                null,
+                30,
+                null
+            )
+        } else {
+            coreApi.listPersistentVolumeClaimForAllNamespaces(
+                continueToken,
                 null,
                 null,
                 "component=flink,owner=flink-operator",
+                100,
                 null,
                 null,
-                600,
-                true,
+                30,
+                null
+            )
+        }
+
+        return ResourcePage(response.items, response.metadata.resourceVersion, response.metadata.`continue`)
+    }
+
+    private fun listPodResources(namespace: String?, coreApi: CoreV1Api, continueToken: String?): ResourcePage<V1Pod> {
+        val response = if (namespace != null) {
+            coreApi.listNamespacedPod(
+                namespace,
+                null,
                 null,
+                continueToken,
+                null,
+                "component=flink,owner=flink-operator",
+                100,
+                null,
+                30,
                 null
-            ),
+            )
+        } else {
+            coreApi.listPodForAllNamespaces(
+                continueToken,
+                null,
+                null,
+                "component=flink,owner=flink-operator",
+                100,
+                null,
+                null,
+                30,
+                null
+            )
+        }
+
+        return ResourcePage(response.items, response.metadata.resourceVersion, response.metadata.`continue`)
+    }
+
+    private fun watchFlickClusterResources(namespace: String?, objectApi: CustomObjectsApi, resourceVersion: String): Watch<V1FlinkCluster> =
+        Watch.createWatch<V1FlinkCluster>(
+            Configuration.getDefaultApiClient(),
+            if (namespace != null) {
+                objectApi.listNamespacedCustomObjectCall(
+                    "beta.nextbreakpoint.com",
+                    "v1",
+                    namespace,
+                    "flinkclusters",
+                    null,
+                    null,
+                    resourceVersion,
+                    true,
+                    null,
+                    null
+                )
+            } else {
+                objectApi.listClusterCustomObjectCall(
+                    "beta.nextbreakpoint.com",
+                    "v1",
+                    "flinkclusters",
+                    null,
+                    null,
+                    resourceVersion,
+                    true,
+                    null,
+                    null
+                )
+            },
+            object : TypeToken<Watch.Response<V1FlinkCluster>>() {}.type
+        )
+
+    private fun watchServiceResources(namespace: String?, coreApi: CoreV1Api, resourceVersion: String): Watch<V1Service> =
+        Watch.createWatch<V1Service>(
+            Configuration.getDefaultApiClient(),
+            if (namespace != null) {
+                coreApi.listNamespacedServiceCall(
+                    namespace,
+                    null,
+                    null,
+                    null,
+                    null,
+                    "component=flink,owner=flink-operator",
+                    null,
+                    resourceVersion,
+                    600,
+                    true,
+                    null,
+                    null
+                )
+            } else {
+                coreApi.listServiceForAllNamespacesCall(
+                    null,
+                    null,
+                    null,
+                    "component=flink,owner=flink-operator",
+                    null,
+                    null,
+                    resourceVersion,
+                    600,
+                    true,
+                    null,
+                    null
+                )
+            },
+            object : TypeToken<Watch.Response<V1Service>>() {}.type
+        )
+
+    private fun watchDeploymentResources(namespace: String?, appsApi: AppsV1Api, resourceVersion: String): Watch<V1Deployment> =
+        Watch.createWatch<V1Deployment>(
+            Configuration.getDefaultApiClient(),
+            if (namespace != null) {
+                appsApi.listNamespacedDeploymentCall(
+                    namespace,
+                    null,
+                    null,
+                    null,
+                    null,
+                    "component=flink,owner=flink-operator",
+                    null,
+                    resourceVersion,
+                    600,
+                    true,
+                    null,
+                    null
+                )
+            } else {
+                appsApi.listDeploymentForAllNamespacesCall(
+                    null,
+                    null,
+                    null,
+                    "component=flink,owner=flink-operator",
+                    null,
+                    null,
+                    resourceVersion,
+                    600,
+                    true,
+                    null,
+                    null
+                )
+            },
+            object : TypeToken<Watch.Response<V1Deployment>>() {}.type
+        )
+
+    private fun watchStatefulSetResources(namespace: String?, appsApi: AppsV1Api, resourceVersion: String): Watch<V1StatefulSet> =
+        Watch.createWatch<V1StatefulSet>(
+            Configuration.getDefaultApiClient(),
+            if (namespace != null) {
+                appsApi.listNamespacedStatefulSetCall(
+                    namespace,
+                    null,
+                    null,
+                    null,
+                    null,
+                    "component=flink,owner=flink-operator",
+                    null,
+                    resourceVersion,
+                    600,
+                    true,
+                    null,
+                    null
+                )
+            } else {
+                appsApi.listStatefulSetForAllNamespacesCall(
+                    null,
+                    null,
+                    null,
+                    "component=flink,owner=flink-operator",
+                    null,
+                    null,
+                    resourceVersion,
+                    600,
+                    true,
+                    null,
+                    null
+                )
+            },
+            object : TypeToken<Watch.Response<V1StatefulSet>>() {}.type
+        )
+
+    private fun watchPermanentVolumeClaimResources(namespace: String?, coreApi: CoreV1Api, resourceVersion: String): Watch<V1PersistentVolumeClaim> =
+        Watch.createWatch<V1PersistentVolumeClaim>(
+            Configuration.getDefaultApiClient(),
+            if (namespace != null) {
+                coreApi.listNamespacedPersistentVolumeClaimCall(
+                    namespace,
+                    null,
+                    null,
+                    null,
+                    null,
+                    "component=flink,owner=flink-operator",
+                    null,
+                    resourceVersion,
+                    600,
+                    true,
+                    null,
+                    null
+                )
+            } else {
+                coreApi.listPersistentVolumeClaimForAllNamespacesCall(
+                    null,
+                    null,
+                    null,
+                    "component=flink,owner=flink-operator",
+                    null,
+                    null,
+                    resourceVersion,
+                    600,
+                    true,
+                    null,
+                    null
+                )
+            },
             object : TypeToken<Watch.Response<V1PersistentVolumeClaim>>() {}.type
         )
+
+    private fun watchPodResources(namespace: String?, coreApi: CoreV1Api, resourceVersion: String): Watch<V1Pod> =
+        Watch.createWatch<V1Pod>(
+            Configuration.getDefaultApiClient(),
+            if (namespace != null) {
+                coreApi.listNamespacedPodCall(
+                    namespace,
+                    null,
+                    null,
+                    null,
+                    null,
+                    "component=flink,owner=flink-operator",
+                    null,
+                    resourceVersion,
+                    600,
+                    true,
+                    null,
+                    null
+                )
+            } else {
+                coreApi.listPodForAllNamespacesCall(
+                    null,
+                    null,
+                    null,
+                    "component=flink,owner=flink-operator",
+                    null,
+                    null,
+                    resourceVersion,
+                    600,
+                    true,
+                    null,
+                    null
+                )
+            },
+            object : TypeToken<Watch.Response<V1Pod>>() {}.type
+        )
 }
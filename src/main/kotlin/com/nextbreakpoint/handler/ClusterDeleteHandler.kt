@@ -1,6 +1,8 @@
 package com.nextbreakpoint.handler
 
+import com.google.gson.JsonSyntaxException
 import com.nextbreakpoint.model.ClusterDescriptor
+import io.kubernetes.client.ApiException
 import io.kubernetes.client.apis.AppsV1Api
 import io.kubernetes.client.apis.CoreV1Api
 import io.kubernetes.client.models.V1DeleteOptions
@@ -11,25 +13,120 @@ object ClusterDeleteHandler {
 
     fun execute(descriptor: ClusterDescriptor): String {
         try {
-            val api = AppsV1Api()
+            deleteResources(descriptor)
 
-            val coreApi = CoreV1Api()
+            // the volumes are protected until the pods using them are gone
+            deletePersistentVolumeClaims(descriptor)
 
-            logger.info("Deleting cluster ${descriptor.name}...")
+            logger.info("Done.")
+
+            return "{\"status\":\"SUCCESS\"}"
+        } catch (e : Exception) {
+            throw RuntimeException(e)
+        }
+    }
+
+    // the foreground deletion of the anchor removes the other resources asynchronously
+    fun deleteResources(descriptor: ClusterDescriptor) {
+        val api = AppsV1Api()
+
+        val coreApi = CoreV1Api()
+
+        logger.info("Deleting cluster ${descriptor.name}...")
 
+        if (!deleteAnchor(coreApi, descriptor)) {
             deleteDeployment(api, descriptor)
 
             deleteStatefulSets(api, descriptor)
 
             deleteService(coreApi, descriptor)
+        }
+    }
 
-            deletePersistentVolumeClaims(coreApi, descriptor)
+    fun deletePersistentVolumeClaims(descriptor: ClusterDescriptor) {
+        deletePersistentVolumeClaimCollection(CoreV1Api(), descriptor)
+    }
 
-            logger.info("Done.")
+    fun hasAnchor(descriptor: ClusterDescriptor): Boolean {
+        try {
+            CoreV1Api().readNamespacedConfigMap(ClusterResourcesFactory.anchorNameOf(descriptor), descriptor.namespace, null, null, null)
 
-            return "{\"status\":\"SUCCESS\"}"
-        } catch (e : Exception) {
-            throw RuntimeException(e)
+            return true
+        } catch (e: ApiException) {
+            if (e.code == 404) {
+                return false
+            }
+            throw e
+        }
+    }
+
+    fun hasPersistentVolumeClaims(descriptor: ClusterDescriptor): Boolean {
+        val volumeClaims = CoreV1Api().listNamespacedPersistentVolumeClaim(
+            descriptor.namespace,
+            null,
+            null,
+            null,
+            null,
+            "cluster=${descriptor.name},environment=${descriptor.environment}",
+            1,
+            null,
+            30,
+            null
+        )
+
+        return volumeClaims.items.isNotEmpty()
+    }
+
+    private fun deleteAnchor(coreApi: CoreV1Api, descriptor: ClusterDescriptor): Boolean {
+        try {
+            val name = ClusterResourcesFactory.anchorNameOf(descriptor)
+
+            logger.info("Removing ConfigMap $name and its dependents...")
+
+            val status = coreApi.deleteNamespacedConfigMap(
+                name,
+                descriptor.namespace,
+                V1DeleteOptions().propagationPolicy("Foreground"),
+                "true",
+                null,
+                null,
+                null,
+                null
+            )
+
+            logger.info("Response status: ${status.reason}")
+        } catch (e: ApiException) {
+            if (e.code == 404) {
+                return false
+            }
+            throw e
+        } catch (e: JsonSyntaxException) {
+            // ignore. see bug https://github.com/kubernetes/kubernetes/issues/59501
+        }
+
+        return true
+    }
+
+    private fun deletePersistentVolumeClaimCollection(coreApi: CoreV1Api, descriptor: ClusterDescriptor) {
+        try {
+            logger.info("Removing Persistent Volume Claims...")
+
+            val status = coreApi.deleteCollectionNamespacedPersistentVolumeClaim(
+                descriptor.namespace,
+                null,
+                "true",
+                null,
+                null,
+                "cluster=${descriptor.name},environment=${descriptor.environment}",
+                null,
+                null,
+                30,
+                null
+            )
+
+            logger.info("Response status: ${status.reason}")
+        } catch (e: JsonSyntaxException) {
+            // ignore. see bug https://github.com/kubernetes/kubernetes/issues/59501
         }
     }
 
@@ -146,42 +243,4 @@ object ClusterDeleteHandler {
             }
         }
     }
-
-    private fun deletePersistentVolumeClaims(coreApi: CoreV1Api, descriptor: ClusterDescriptor) {
-        val volumeClaims = coreApi.listNamespacedPersistentVolumeClaim(
-            descriptor.namespace,
-            null,
-            null,
-            null,
-            null,
-            "cluster=${descriptor.name},environment=${descriptor.environment}",
-            null,
-            null,
-            30,
-            null
-        )
-
-        volumeClaims.items.forEach { volumeClaim ->
-            try {
-                logger.info("Removing Persistent Volume Claim ${volumeClaim.metadata.name}...")
-
-                val status = coreApi.deleteNamespacedPersistentVolumeClaim(
-                    volumeClaim.metadata.name,
-                    descriptor.namespace,
-                    V1DeleteOptions(),
-                    "true",
-                    null,
-                    null,
-                    null,
-                    null
-                )
-
-                logger.info("Response status: ${status.reason}")
-
-                status.details.causes.forEach { logger.info(it.message) }
-            } catch (e: Exception) {
-                // ignore. see bug https://github.com/kubernetes/kubernetes/issues/59501
-            }
-        }
-    }
-}
\ No newline at end of file
+}
@@ -0,0 +1,157 @@
+package com.nextbreakpoint.handler
+
+import com.google.gson.JsonObject
+import com.google.gson.JsonParser
+import com.google.gson.reflect.TypeToken
+import com.nextbreakpoint.CommandUtils
+import com.nextbreakpoint.flinkclient.api.FlinkApi
+import com.nextbreakpoint.flinkclient.model.JobIdWithStatus
+import com.nextbreakpoint.model.ClusterDescriptor
+import com.nextbreakpoint.model.ClusterLoad
+import com.nextbreakpoint.model.Metric
+import com.squareup.okhttp.Request
+import io.kubernetes.client.JSON
+import io.kubernetes.client.apis.CoreV1Api
+import org.apache.log4j.Logger
+
+object ClusterLoadHandler {
+    private val logger = Logger.getLogger(ClusterLoadHandler::class.simpleName)
+
+    fun execute(portForward: Int?, useNodePort: Boolean, descriptor: ClusterDescriptor): ClusterLoad {
+        val flinkApi = createFlinkApi(portForward, useNodePort, descriptor)
+
+        val taskmanagers = flinkApi.taskManagersOverview.taskmanagers ?: listOf()
+
+        val cpuLoads = taskmanagers.mapNotNull { taskmanager ->
+            getMetric(flinkApi, taskmanager.id, "Status.JVM.CPU.Load").firstOrNull()?.value?.toDoubleOrNull()
+        }
+
+        val jobId = flinkApi.jobs.jobs?.firstOrNull { it.status == JobIdWithStatus.StatusEnum.RUNNING }?.id
+
+        return ClusterLoad(
+            jobId = jobId,
+            taskManagers = taskmanagers.size,
+            totalSlots = taskmanagers.map { it.slotsNumber ?: 0 }.sum(),
+            freeSlots = taskmanagers.map { it.freeSlots ?: 0 }.sum(),
+            cpuLoad = if (cpuLoads.isEmpty()) null else cpuLoads.average(),
+            backpressured = jobId != null && isBackpressured(flinkApi, jobId)
+        )
+    }
+
+    private fun getMetric(flinkApi: FlinkApi, taskmanagerId: String, metricKey: String): List<Metric> {
+        val response = flinkApi.getTaskManagerMetricsCall(taskmanagerId, metricKey, null, null).execute()
+        return if (response.isSuccessful) {
+            response.body().use {
+                JSON().deserialize(it.source().readUtf8Line(), object : TypeToken<List<Metric>>() {}.type) as List<Metric>
+            }
+        } else {
+            response.body().close()
+            listOf()
+        }
+    }
+
+    // the backpressure of each vertex is sampled on demand, therefore the first request of a job might not report any level
+    private fun isBackpressured(flinkApi: FlinkApi, jobId: String): Boolean {
+        val job = get(flinkApi, "/jobs/$jobId") ?: return false
+
+        val vertices = job.getAsJsonArray("vertices") ?: return false
+
+        return vertices.map { it.asJsonObject.get("id").asString }.any { vertexId ->
+            val backpressure = get(flinkApi, "/jobs/$jobId/vertices/$vertexId/backpressure")
+
+            val level = backpressure?.get("backpressure-level")?.asString
+
+            if (level == "high") {
+                logger.info("Vertex $vertexId of job $jobId is backpressured")
+            }
+
+            level == "high"
+        }
+    }
+
+    private fun get(flinkApi: FlinkApi, path: String): JsonObject? {
+        val response = flinkApi.apiClient.httpClient.newCall(Request.Builder().url(flinkApi.apiClient.basePath + path).get().build()).execute()
+        return response.body().use {
+            if (response.isSuccessful) JsonParser().parse(it.string()).asJsonObject else null
+        }
+    }
+
+    private fun createFlinkApi(portForward: Int?, useNodePort: Boolean, descriptor: ClusterDescriptor): FlinkApi {
+        val coreApi = CoreV1Api()
+
+        var jobmanagerHost = "localhost"
+        var jobmanagerPort = portForward ?: 8081
+
+        if (portForward == null && useNodePort) {
+            val nodes = coreApi.listNode(
+                false,
+                null,
+                null,
+                null,
+                null,
+                1,
+                null,
+                30,
+                null
+            )
+
+            if (!nodes.items.isEmpty()) {
+                nodes.items.get(0).status.addresses.filter {
+                    it.type.equals("InternalIP")
+                }.map {
+                    it.address
+                }.firstOrNull()?.let {
+                    jobmanagerHost = it
+                }
+            } else {
+                throw RuntimeException("Node not found")
+            }
+        }
+
+        if (portForward == null) {
+            val services = coreApi.listNamespacedService(
+                descriptor.namespace,
+                null,
+                null,
+                null,
+                null,
+                "cluster=${descriptor.name},environment=${descriptor.environment},role=jobmanager",
+                1,
+                null,
+                30,
+                null
+            )
+
+            if (!services.items.isEmpty()) {
+                val service = services.items.get(0)
+
+                if (useNodePort) {
+                    service.spec.ports.filter {
+                        it.name.equals("ui")
+                    }.filter {
+                        it.nodePort != null
+                    }.map {
+                        it.nodePort
+                    }.firstOrNull()?.let {
+                        jobmanagerPort = it
+                    }
+                } else {
+                    service.spec.ports.filter {
+                        it.name.equals("ui")
+                    }.filter {
+                        it.port != null
+                    }.map {
+                        it.port
+                    }.firstOrNull()?.let {
+                        jobmanagerPort = it
+                    }
+                    jobmanagerHost = service.spec.clusterIP
+                }
+            } else {
+                throw RuntimeException("JobManager not found")
+            }
+        }
+
+        return CommandUtils.flinkApi(host = jobmanagerHost, port = jobmanagerPort)
+    }
+}
@@ -0,0 +1,115 @@
+package com.nextbreakpoint.handler
+
+import com.nextbreakpoint.CommandUtils
+import com.nextbreakpoint.model.ClusterConfig
+import io.kubernetes.client.apis.CoreV1Api
+import org.apache.log4j.Logger
+
+object ClusterReadyHandler {
+    private val logger = Logger.getLogger(ClusterReadyHandler::class.simpleName)
+
+    fun execute(portForward: Int?, useNodePort: Boolean, clusterConfig: ClusterConfig, startTime: Long, timeout: Long = 100000): String {
+        val coreApi = CoreV1Api()
+
+        val descriptor = clusterConfig.descriptor
+
+        var jobmanagerHost = "localhost"
+        var jobmanagerPort = portForward ?: 8081
+
+        if (portForward == null && useNodePort) {
+            val nodes = coreApi.listNode(
+                false,
+                null,
+                null,
+                null,
+                null,
+                1,
+                null,
+                30,
+                null
+            )
+
+            if (!nodes.items.isEmpty()) {
+                nodes.items.get(0).status.addresses.filter {
+                    it.type.equals("InternalIP")
+                }.map {
+                    it.address
+                }.firstOrNull()?.let {
+                    jobmanagerHost = it
+                }
+            } else {
+                throw RuntimeException("Node not found")
+            }
+        }
+
+        if (portForward == null) {
+            val services = coreApi.listNamespacedService(
+                descriptor.namespace,
+                null,
+                null,
+                null,
+                null,
+                "cluster=${descriptor.name},environment=${descriptor.environment},role=jobmanager",
+                1,
+                null,
+                30,
+                null
+            )
+
+            if (!services.items.isEmpty()) {
+                val service = services.items.get(0)
+
+                logger.info("Found JobManager ${service.metadata.name}")
+
+                if (useNodePort) {
+                    service.spec.ports.filter {
+                        it.name.equals("ui")
+                    }.filter {
+                        it.nodePort != null
+                    }.map {
+                        it.nodePort
+                    }.firstOrNull()?.let {
+                        jobmanagerPort = it
+                    }
+                } else {
+                    service.spec.ports.filter {
+                        it.name.equals("ui")
+                    }.filter {
+                        it.port != null
+                    }.map {
+                        it.port
+                    }.firstOrNull()?.let {
+                        jobmanagerPort = it
+                    }
+                    jobmanagerHost = service.spec.clusterIP
+                }
+            } else {
+                throw RuntimeException("JobManager not found")
+            }
+        }
+
+        val flinkApi = CommandUtils.flinkApi(host = jobmanagerHost, port = jobmanagerPort)
+
+        logger.info("Waiting for ${clusterConfig.taskmanager.replicas} TaskManagers...")
+
+        while (System.currentTimeMillis() - startTime < timeout) {
+            try {
+                val taskmanagers = flinkApi.taskManagersOverview.taskmanagers
+
+                if (taskmanagers != null && taskmanagers.size >= clusterConfig.taskmanager.replicas) {
+                    val timeToReady = System.currentTimeMillis() - startTime
+
+                    logger.info("Cluster ${descriptor.name} ready after $timeToReady ms")
+
+                    return "{\"status\":\"SUCCESS\",\"timeToReady\":$timeToReady}"
+                }
+            } catch (e: Exception) {
+                logger.debug("JobManager not available yet: ${e.message}")
+            }
+
+            Thread.sleep(2000)
+        }
+
+        throw RuntimeException("Cluster not ready after $timeout ms")
+    }
+}
@@ -0,0 +1,503 @@
+package com.nextbreakpoint.handler
+
+import com.nextbreakpoint.model.ClusterConfig
+import com.nextbreakpoint.model.ClusterDescriptor
+import com.nextbreakpoint.model.ResourcesConfig
+import com.nextbreakpoint.model.StorageConfig
+import com.nextbreakpoint.operator.ClusterConfigHash
+import io.kubernetes.client.custom.IntOrString
+import io.kubernetes.client.custom.Quantity
+import io.kubernetes.client.models.*
+
+object ClusterResourcesFactory {
+    fun anchorNameOf(descriptor: ClusterDescriptor) = "flink-cluster-${descriptor.name}-${descriptor.environment}"
+
+    fun createAnchorConfigMap(owner: String, clusterConfig: ClusterConfig, ownerReference: V1OwnerReference?): V1ConfigMap {
+        val anchorMetadata = V1ObjectMeta()
+            .name(anchorNameOf(clusterConfig.descriptor))
+            .labels(createLabels(owner, clusterConfig))
+            .ownerReferences(if (ownerReference != null) listOf(ownerReference) else null)
+
+        return V1ConfigMap().metadata(anchorMetadata)
+    }
+
+    fun createAnchorReference(anchor: V1ConfigMap) = V1OwnerReference()
+        .apiVersion("v1")
+        .kind("ConfigMap")
+        .name(anchor.metadata.name)
+        .uid(anchor.metadata.uid)
+        .controller(true)
+        .blockOwnerDeletion(true)
+
+    fun createJobManagerService(owner: String, clusterConfig: ClusterConfig): V1Service {
+        val srvPort8081 = createServicePort(8081, "ui")
+        val srvPort6123 = createServicePort(6123, "rpc")
+        val srvPort6124 = createServicePort(6124, "blob")
+        val srvPort6125 = createServicePort(6125, "query")
+
+        val jobmanagerLabels = createJobManagerLabels(owner, clusterConfig)
+
+        val jobmanagerServiceSpec = V1ServiceSpec()
+            .ports(
+                listOf(
+                    srvPort8081,
+                    srvPort6123,
+                    srvPort6124,
+                    srvPort6125
+                )
+            )
+            .selector(jobmanagerLabels)
+            .type(clusterConfig.jobmanager.serviceMode)
+
+        val jobmanagerServiceMetadata =
+            createObjectMeta("flink-jobmanager-", jobmanagerLabels)
+
+        return V1Service().spec(jobmanagerServiceSpec).metadata(jobmanagerServiceMetadata.annotations(createAnnotations(clusterConfig)))
+    }
+
+    fun createJobManagerStatefulSet(owner: String, clusterConfig: ClusterConfig, serviceName: String): V1StatefulSet {
+        val port8081 = createContainerPort(8081, "ui")
+        val port6123 = createContainerPort(6123, "rpc")
+        val port6124 = createContainerPort(6124, "blob")
+        val port6125 = createContainerPort(6125, "query")
+
+        val jobmanagerResources = clusterConfig.jobmanager.resources
+
+        val jobmanagerResourceRequirements = createResourceRequirements(jobmanagerResources)
+
+        val jobmanagerLabels = createJobManagerLabels(owner, clusterConfig)
+
+        val taskmanagerLabels = createTaskManagerLabels(owner, clusterConfig)
+
+        val jobmanagerSelector = V1LabelSelector().matchLabels(jobmanagerLabels)
+
+        val taskmanagerSelector = V1LabelSelector().matchLabels(taskmanagerLabels)
+
+        val jobManagerHeapEnvVar = createEnvVar(
+            "FLINK_JM_HEAP",
+            jobmanagerResources.memory.toString()
+        )
+
+        val jobmanagerVolumeMount = createVolumeMount("jobmanager")
+
+        val updateStrategy = V1StatefulSetUpdateStrategy().type("RollingUpdate")
+
+        val jobmanagerVariables = mutableListOf(
+            createPodNameEnvVar(),
+            createPodNamespaceEnvVar(),
+            createEnvironmentEnvVar(clusterConfig),
+            createRpcAddressEnvVar(serviceName),
+            jobManagerHeapEnvVar
+        )
+
+        val jobmanagerUserVariables = clusterConfig.jobmanager.environmentVariables
+            .map { createEnvVar(it.name, it.value) }.toList()
+
+        jobmanagerVariables.addAll(jobmanagerUserVariables)
+
+        val jobmanager = V1Container()
+            .image(clusterConfig.jobmanager.image)
+            .imagePullPolicy(clusterConfig.jobmanager.pullPolicy)
+            .name("flink-jobmanager")
+            .args(
+                listOf("jobmanager")
+            )
+            .ports(
+                listOf(
+                    port8081,
+                    port6123,
+                    port6124,
+                    port6125
+                )
+            )
+            .volumeMounts(listOf(jobmanagerVolumeMount))
+            .env(
+                jobmanagerVariables
+            )
+            .resources(jobmanagerResourceRequirements)
+
+        val jobmanagerAffinity =
+            createAffinity(jobmanagerSelector, taskmanagerSelector)
+
+        val jobmanagerPullSecrets = if (clusterConfig.jobmanager.pullSecrets != null) {
+            listOf(
+                V1LocalObjectReference().name(clusterConfig.jobmanager.pullSecrets)
+            )
+        } else null
+
+        val jobmanagerPodSpec = V1PodSpec()
+            .containers(
+                listOf(jobmanager)
+            )
+            .serviceAccountName(clusterConfig.jobmanager.serviceAccount)
+            .imagePullSecrets(jobmanagerPullSecrets)
+            .affinity(jobmanagerAffinity)
+
+        val jobmanagerMetadata =
+            createObjectMeta("flink-jobmanager-", jobmanagerLabels)
+
+        val jobmanagerVolumeClaim =
+            createPersistentVolumeClaimSpec(clusterConfig.jobmanager.storage)
+
+        return V1StatefulSet()
+            .metadata(createObjectMeta("flink-jobmanager-", jobmanagerLabels).annotations(createAnnotations(clusterConfig)))
+            .spec(
+                V1StatefulSetSpec()
+                    .replicas(1)
+                    .template(
+                        V1PodTemplateSpec()
+                            .spec(jobmanagerPodSpec)
+                            .metadata(jobmanagerMetadata)
+                    )
+                    .updateStrategy(updateStrategy)
+                    .serviceName("jobmanager")
+                    .selector(jobmanagerSelector)
+                    .addVolumeClaimTemplatesItem(
+                        V1PersistentVolumeClaim()
+                            .spec(jobmanagerVolumeClaim)
+                            .metadata(
+                                V1ObjectMeta()
+                                    .name("jobmanager")
+                                    .labels(jobmanagerLabels)
+                            )
+                    )
+            )
+    }
+
+    fun createSidecarDeployment(owner: String, clusterConfig: ClusterConfig): V1Deployment {
+        val jobmanagerLabels = createJobManagerLabels(owner, clusterConfig)
+
+        val taskmanagerLabels = createTaskManagerLabels(owner, clusterConfig)
+
+        val sidecarLabels = createSidecarLabels(owner, clusterConfig)
+
+        val jobmanagerSelector = V1LabelSelector().matchLabels(jobmanagerLabels)
+
+        val taskmanagerSelector = V1LabelSelector().matchLabels(taskmanagerLabels)
+
+        val sidecarSelector = V1LabelSelector().matchLabels(sidecarLabels)
+
+        val arguments = mutableListOf<String>()
+
+        if (clusterConfig.sidecar.jarPath != null) {
+            arguments.addAll(listOf(
+                "sidecar",
+                "submit",
+                "--namespace=${clusterConfig.descriptor.namespace}",
+                "--environment=${clusterConfig.descriptor.environment}",
+                "--cluster-name=${clusterConfig.descriptor.name}",
+                "--jar-path=${clusterConfig.sidecar.jarPath}",
+                "--parallelism=${clusterConfig.sidecar.parallelism}"
+            ))
+
+            if (clusterConfig.sidecar.className != null) {
+                arguments.add("--class-name=${clusterConfig.sidecar.className}")
+            }
+
+            if (clusterConfig.sidecar.savepoint != null) {
+                arguments.add("--savepoint=${clusterConfig.sidecar.savepoint}")
+            }
+
+            clusterConfig.sidecar.arguments?.split(" ")?.forEach { argument ->
+                arguments.add("--argument=$argument")
+            }
+        } else {
+            arguments.addAll(listOf(
+                "sidecar",
+                "watch",
+                "--namespace=${clusterConfig.descriptor.namespace}",
+                "--environment=${clusterConfig.descriptor.environment}",
+                "--cluster-name=${clusterConfig.descriptor.name}"
+            ))
+        }
+
+        val sidecar = V1Container()
+            .image(clusterConfig.sidecar.image)
+            .imagePullPolicy(clusterConfig.sidecar.pullPolicy)
+            .name("flink-sidecar")
+            .args(arguments)
+            .env(
+                listOf(
+                    createPodNameEnvVar(),
+                    createPodNamespaceEnvVar(),
+                    createEnvironmentEnvVar(clusterConfig)
+                )
+            )
+            .resources(createSidecarResourceRequirements())
+
+        val jobmanagerAffinity =
+            createAffinity(jobmanagerSelector, taskmanagerSelector)
+
+        val sidecarPullSecrets = if (clusterConfig.sidecar.pullSecrets != null) {
+            listOf(
+                V1LocalObjectReference().name(clusterConfig.sidecar.pullSecrets)
+            )
+        } else null
+
+        val sidecarPodSpec = V1PodSpec()
+            .containers(
+                listOf(sidecar)
+            )
+            .serviceAccountName(clusterConfig.sidecar.serviceAccount)
+            .imagePullSecrets(sidecarPullSecrets)
+            .affinity(jobmanagerAffinity)
+
+        val sidecarMetadata =
+            createObjectMeta("flink-sidecar-", sidecarLabels)
+
+        return V1Deployment()
+            .metadata(createObjectMeta("flink-sidecar-", sidecarLabels).annotations(createAnnotations(clusterConfig)))
+            .spec(
+                V1DeploymentSpec()
+                    .replicas(1)
+                    .template(
+                        V1PodTemplateSpec()
+                            .spec(sidecarPodSpec)
+                            .metadata(sidecarMetadata)
+                    )
+                    .selector(sidecarSelector)
+            )
+    }
+
+    fun createTaskManagerStatefulSet(owner: String, clusterConfig: ClusterConfig, serviceName: String): V1StatefulSet {
+        val port6121 = createContainerPort(6121, "data")
+        val port6122 = createContainerPort(6122, "ipc")
+
+        val taskmanagerResources = clusterConfig.taskmanager.resources
+
+        val taskmanagerResourceRequirements = createResourceRequirements(taskmanagerResources)
+
+        val jobmanagerLabels = createJobManagerLabels(owner, clusterConfig)
+
+        val taskmanagerLabels = createTaskManagerLabels(owner, clusterConfig)
+
+        val jobmanagerSelector = V1LabelSelector().matchLabels(jobmanagerLabels)
+
+        val taskmanagerSelector = V1LabelSelector().matchLabels(taskmanagerLabels)
+
+        val taskManagerHeapEnvVar = createEnvVar(
+            "FLINK_TM_HEAP",
+            taskmanagerResources.memory.toString()
+        )
+
+        val numberOfTaskSlotsEnvVar = createEnvVar(
+            "TASK_MANAGER_NUMBER_OF_TASK_SLOTS",
+            clusterConfig.taskmanager.taskSlots.toString()
+        )
+
+        val taskmanagerVolumeMount =
+            createVolumeMount("taskmanager")
+
+        val updateStrategy = V1StatefulSetUpdateStrategy().type("RollingUpdate")
+
+        val taskmanagerVariables = mutableListOf(
+            createPodNameEnvVar(),
+            createPodNamespaceEnvVar(),
+            createEnvironmentEnvVar(clusterConfig),
+            createRpcAddressEnvVar(serviceName),
+            taskManagerHeapEnvVar,
+            numberOfTaskSlotsEnvVar
+        )
+
+        val taskmanagerUserVariables = clusterConfig.taskmanager.environmentVariables
+            .map { createEnvVar(it.name, it.value) }.toList()
+
+        taskmanagerVariables.addAll(taskmanagerUserVariables)
+
+        val taskmanager = V1Container()
+            .image(clusterConfig.taskmanager.image)
+            .imagePullPolicy(clusterConfig.taskmanager.pullPolicy)
+            .name("flink-taskmanager")
+            .args(
+                listOf("taskmanager")
+            )
+            .ports(
+                listOf(
+                    port6121,
+                    port6122
+                )
+            )
+            .volumeMounts(
+                listOf(taskmanagerVolumeMount)
+            )
+            .env(
+                taskmanagerVariables
+            )
+            .resources(taskmanagerResourceRequirements)
+
+        val taskmanagerAffinity =
+            createAffinity(jobmanagerSelector, taskmanagerSelector)
+
+        val taskmanagerPullSecrets = if (clusterConfig.taskmanager.pullSecrets != null) {
+            listOf(
+                V1LocalObjectReference().name(clusterConfig.taskmanager.pullSecrets)
+            )
+        } else null
+
+        val taskmanagerPodSpec = V1PodSpec()
+            .containers(
+                listOf(taskmanager)
+            )
+            .serviceAccountName(clusterConfig.taskmanager.serviceAccount)
+            .imagePullSecrets(taskmanagerPullSecrets)
+            .affinity(taskmanagerAffinity)
+
+        val taskmanagerMetadata = createObjectMeta(
+            "flink-taskmanager-",
+            taskmanagerLabels
+        )
+
+        val taskmanagerVolumeClaim =
+            createPersistentVolumeClaimSpec(clusterConfig.taskmanager.storage)
+
+        return V1StatefulSet()
+            .metadata(createObjectMeta("flink-taskmanager-", taskmanagerLabels).annotations(createAnnotations(clusterConfig)))
+            .spec(
+                V1StatefulSetSpec()
+                    .replicas(clusterConfig.taskmanager.replicas)
+                    .template(
+                        V1PodTemplateSpec()
+                            .spec(taskmanagerPodSpec)
+                            .metadata(taskmanagerMetadata)
+                    )
+                    .updateStrategy(updateStrategy)
+                    .serviceName("taskmanager")
+                    .selector(taskmanagerSelector)
+                    .addVolumeClaimTemplatesItem(
+                        V1PersistentVolumeClaim()
+                            .spec(taskmanagerVolumeClaim)
+                            .metadata(
+                                V1ObjectMeta()
+                                    .name("taskmanager")
+                                    .labels(taskmanagerLabels)
+                            )
+                    )
+            )
+    }
+
+    private fun createJobManagerLabels(owner: String, clusterConfig: ClusterConfig) =
+        createLabels(owner, clusterConfig) + Pair("role", "jobmanager")
+
+    private fun createTaskManagerLabels(owner: String, clusterConfig: ClusterConfig) =
+        createLabels(owner, clusterConfig) + Pair("role", "taskmanager")
+
+    private fun createSidecarLabels(owner: String, clusterConfig: ClusterConfig) =
+        createLabels(owner, clusterConfig)
+
+    private fun createLabels(owner: String, clusterConfig: ClusterConfig) = mapOf(
+        Pair("owner", owner),
+        Pair("cluster", clusterConfig.descriptor.name),
+        Pair("component", "flink"),
+        Pair("environment", clusterConfig.descriptor.environment)
+    )
+
+    private fun createAnnotations(clusterConfig: ClusterConfig) =
+        mapOf(ClusterConfigHash.ANNOTATION to ClusterConfigHash.of(clusterConfig))
+
+    private fun createEnvironmentEnvVar(clusterConfig: ClusterConfig) = createEnvVar(
+        "FLINK_ENVIRONMENT",
+        clusterConfig.descriptor.environment
+    )
+
+    private fun createRpcAddressEnvVar(serviceName: String) = createEnvVar(
+        "JOB_MANAGER_RPC_ADDRESS",
+        serviceName
+    )
+
+    private fun createPodNameEnvVar() =
+        createEnvVarFromField("POD_NAME", "metadata.name")
+
+    private fun createPodNamespaceEnvVar() = createEnvVarFromField(
+        "POD_NAMESPACE",
+        "metadata.namespace"
+    )
+
+    private fun createAffinity(jobmanagerSelector: V1LabelSelector?, taskmanagerSelector: V1LabelSelector?) = V1Affinity()
+        .podAntiAffinity(
+            V1PodAntiAffinity().preferredDuringSchedulingIgnoredDuringExecution(
+                listOf(
+                    V1WeightedPodAffinityTerm().weight(50).podAffinityTerm(
+                        V1PodAffinityTerm()
+                            .topologyKey("kubernetes.io/hostname")
+                            .labelSelector(jobmanagerSelector)
+                    ),
+                    V1WeightedPodAffinityTerm().weight(100).podAffinityTerm(
+                        V1PodAffinityTerm()
+                            .topologyKey("kubernetes.io/hostname")
+                            .labelSelector(taskmanagerSelector)
+                    )
+                )
+            )
+        )
+
+    private fun createPersistentVolumeClaimSpec(storageConfig: StorageConfig) = V1PersistentVolumeClaimSpec()
+        .accessModes(listOf("ReadWriteOnce"))
+        .storageClassName(storageConfig.storageClass)
+        .resources(
+            V1ResourceRequirements()
+                .requests(
+                    mapOf("storage" to Quantity(storageConfig.size.toString()))
+                )
+        )
+
+    private fun createObjectMeta(name: String, jobmanagerLabels: Map<String, String>) = V1ObjectMeta()
+        .generateName(name)
+        .labels(jobmanagerLabels)
+
+    private fun createVolumeMount(name: String) = V1VolumeMount()
+        .mountPath("/var/tmp/data")
+        .subPath(name)
+        .name(name)
+
+    private fun createEnvVarFromField(name: String, fieldPath: String) = V1EnvVar()
+        .name(name)
+        .valueFrom(
+            V1EnvVarSource()
+                .fieldRef(
+                    V1ObjectFieldSelector().fieldPath(fieldPath)
+                )
+        )
+
+    private fun createEnvVar(name: String, value: String) = V1EnvVar()
+        .name(name)
+        .value(value)
+
+    private fun createResourceRequirements(resourcesConfig: ResourcesConfig) = V1ResourceRequirements()
+        .limits(
+            mapOf(
+                "cpu" to Quantity(resourcesConfig.cpus.toString()),
+                "memory" to Quantity(resourcesConfig.memory.times(1.5).toString() + "Mi")
+            )
+        )
+        .requests(
+            mapOf(
+                "cpu" to Quantity(resourcesConfig.cpus.div(4).toString()),
+                "memory" to Quantity(resourcesConfig.memory.toString() + "Mi")
+            )
+        )
+
+    private fun createSidecarResourceRequirements() = V1ResourceRequirements()
+        .limits(
+            mapOf(
+                "cpu" to Quantity("0.2"),
+                "memory" to Quantity("200Mi")
+            )
+        )
+        .requests(
+            mapOf(
+                "cpu" to Quantity("0.2"),
+                "memory" to Quantity("200Mi")
+            )
+        )
+
+    private fun createServicePort(port: Int, name: String) = V1ServicePort()
+        .protocol("TCP")
+        .port(port)
+        .targetPort(IntOrString(name))
+        .name(name)
+
+    private fun createContainerPort(port: Int, name: String) = V1ContainerPort()
+        .protocol("TCP")
+        .containerPort(port)
+        .name(name)
+}
\ No newline at end of file
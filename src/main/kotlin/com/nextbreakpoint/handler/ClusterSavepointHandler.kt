@@ -0,0 +1,142 @@
+package com.nextbreakpoint.handler
+
+import com.nextbreakpoint.CommandUtils
+import com.nextbreakpoint.flinkclient.api.FlinkApi
+import com.nextbreakpoint.flinkclient.model.JobIdWithStatus
+import com.nextbreakpoint.flinkclient.model.QueueStatus
+import com.nextbreakpoint.flinkclient.model.SavepointTriggerRequestBody
+import com.nextbreakpoint.model.ClusterDescriptor
+import com.nextbreakpoint.model.SavepointRequest
+import io.kubernetes.client.apis.CoreV1Api
+import org.apache.log4j.Logger
+
+object ClusterSavepointHandler {
+    private val logger = Logger.getLogger(ClusterSavepointHandler::class.simpleName)
+
+    fun runningJob(portForward: Int?, useNodePort: Boolean, descriptor: ClusterDescriptor): String? {
+        val flinkApi = createFlinkApi(portForward, useNodePort, descriptor)
+
+        val job = flinkApi.jobs.jobs?.firstOrNull { it.status == JobIdWithStatus.StatusEnum.RUNNING }
+
+        if (job == null) {
+            logger.info("No running job found in cluster ${descriptor.name}")
+        }
+
+        return job?.id
+    }
+
+    fun trigger(portForward: Int?, useNodePort: Boolean, descriptor: ClusterDescriptor, jobId: String): SavepointRequest {
+        val flinkApi = createFlinkApi(portForward, useNodePort, descriptor)
+
+        logger.info("Cancelling job $jobId of cluster ${descriptor.name} with savepoint...")
+
+        val requestBody = SavepointTriggerRequestBody()
+        requestBody.isCancelJob = true
+        requestBody.targetDirectory = null
+
+        val operation = flinkApi.createJobSavepoint(requestBody, jobId)
+
+        return SavepointRequest(jobId = jobId, triggerId = operation.requestId.toString())
+    }
+
+    fun query(portForward: Int?, useNodePort: Boolean, descriptor: ClusterDescriptor, request: SavepointRequest): String? {
+        val flinkApi = createFlinkApi(portForward, useNodePort, descriptor)
+
+        val operationStatus = flinkApi.getJobSavepointStatus(request.jobId, request.triggerId)
+
+        if (operationStatus.status?.id != QueueStatus.IdEnum.COMPLETED) {
+            return null
+        }
+
+        val operation = operationStatus.operation as? Map<*, *>
+
+        val location = operation?.get("location") as? String
+
+        if (location == null) {
+            throw RuntimeException("Savepoint of job ${request.jobId} failed: ${operation?.get("failure-cause")}")
+        }
+
+        logger.info("Savepoint of job ${request.jobId} completed: $location")
+
+        return location
+    }
+
+    private fun createFlinkApi(portForward: Int?, useNodePort: Boolean, descriptor: ClusterDescriptor): FlinkApi {
+        val coreApi = CoreV1Api()
+
+        var jobmanagerHost = "localhost"
+        var jobmanagerPort = portForward ?: 8081
+
+        if (portForward == null && useNodePort) {
+            val nodes = coreApi.listNode(
+                false,
+                null,
+                null,
+                null,
+                null,
+                1,
+                null,
+                30,
+                null
+            )
+
+            if (!nodes.items.isEmpty()) {
+                nodes.items.get(0).status.addresses.filter {
+                    it.type.equals("InternalIP")
+                }.map {
+                    it.address
+                }.firstOrNull()?.let {
+                    jobmanagerHost = it
+                }
+            } else {
+                throw RuntimeException("Node not found")
+            }
+        }
+
+        if (portForward == null) {
+            val services = coreApi.listNamespacedService(
+                descriptor.namespace,
+                null,
+                null,
+                null,
+                null,
+                "cluster=${descriptor.name},environment=${descriptor.environment},role=jobmanager",
+                1,
+                null,
+                30,
+                null
+            )
+
+            if (!services.items.isEmpty()) {
+                val service = services.items.get(0)
+
+                if (useNodePort) {
+                    service.spec.ports.filter {
+                        it.name.equals("ui")
+                    }.filter {
+                        it.nodePort != null
+                    }.map {
+                        it.nodePort
+                    }.firstOrNull()?.let {
+                        jobmanagerPort = it
+                    }
+                } else {
+                    service.spec.ports.filter {
+                        it.name.equals("ui")
+                    }.filter {
+                        it.port != null
+                    }.map {
+                        it.port
+                    }.firstOrNull()?.let {
+                        jobmanagerPort = it
+                    }
+                    jobmanagerHost = service.spec.clusterIP
+                }
+            } else {
+                throw RuntimeException("JobManager not found")
+            }
+        }
+
+        return CommandUtils.flinkApi(host = jobmanagerHost, port = jobmanagerPort)
+    }
+}
@@ -0,0 +1,61 @@
+package com.nextbreakpoint.handler
+
+import com.nextbreakpoint.model.ClusterDescriptor
+import com.nextbreakpoint.model.V1FlinkCluster
+import io.kubernetes.client.ApiException
+import io.kubernetes.client.JSON
+import io.kubernetes.client.apis.CustomObjectsApi
+import org.apache.log4j.Logger
+
+object ClusterSuspendHandler {
+    private val logger = Logger.getLogger(ClusterSuspendHandler::class.simpleName)
+
+    // the operator takes a savepoint and removes the TaskManagers when the cluster is suspended
+    fun execute(descriptor: ClusterDescriptor, suspended: Boolean): String {
+        try {
+            val objectApi = CustomObjectsApi()
+
+            val gson = JSON().gson
+
+            val resource = objectApi.getNamespacedCustomObject(
+                "beta.nextbreakpoint.com",
+                "v1",
+                descriptor.namespace,
+                "flinkclusters",
+                descriptor.name
+            )
+
+            val cluster = gson.fromJson(gson.toJsonTree(resource), V1FlinkCluster::class.java)
+
+            val environment = cluster.spec.environment ?: "test"
+
+            if (environment != descriptor.environment) {
+                throw IllegalArgumentException("FlinkCluster ${descriptor.name} belongs to environment $environment, not to environment ${descriptor.environment}")
+            }
+
+            logger.info("${if (suspended) "Suspending" else "Resuming"} cluster ${descriptor.name}...")
+
+            objectApi.patchNamespacedCustomObject(
+                "beta.nextbreakpoint.com",
+                "v1",
+                descriptor.namespace,
+                "flinkclusters",
+                descriptor.name,
+                mapOf("spec" to mapOf("suspended" to suspended))
+            )
+
+            logger.info("Done.")
+
+            return "{\"status\":\"SUCCESS\"}"
+        } catch (e : ApiException) {
+            if (e.code == 404) {
+                throw RuntimeException("FlinkCluster ${descriptor.name} not found. Only the clusters managed by the operator can be suspended")
+            }
+            throw RuntimeException(e)
+        } catch (e : IllegalArgumentException) {
+            throw e
+        } catch (e : Exception) {
+            throw RuntimeException(e)
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package com.nextbreakpoint.handler
+
+import com.nextbreakpoint.model.ClusterConfig
+import com.nextbreakpoint.operator.ClusterConfigHash
+import com.nextbreakpoint.operator.ClusterResources
+import io.kubernetes.client.apis.AppsV1Api
+import io.kubernetes.client.apis.CoreV1Api
+import io.kubernetes.client.models.V1ObjectMeta
+import org.apache.log4j.Logger
+
+object ClusterUpdateHandler {
+    private val logger = Logger.getLogger(ClusterUpdateHandler::class.simpleName)
+
+    fun canUpdate(currentClusterConfig: ClusterConfig, targetClusterConfig: ClusterConfig) =
+        currentClusterConfig.descriptor == targetClusterConfig.descriptor &&
+        currentClusterConfig.jobmanager.serviceMode == targetClusterConfig.jobmanager.serviceMode &&
+        currentClusterConfig.jobmanager.storage == targetClusterConfig.jobmanager.storage &&
+        currentClusterConfig.taskmanager.storage == targetClusterConfig.taskmanager.storage
+
+    fun execute(currentClusterConfig: ClusterConfig, targetClusterConfig: ClusterConfig, resources: ClusterResources): String {
+        try {
+            val api = AppsV1Api()
+
+            val coreApi = CoreV1Api()
+
+            val service = resources.service ?: throw RuntimeException("Service not found")
+
+            val deployment = resources.deployment ?: throw RuntimeException("Deployment not found")
+
+            val jobmanagerStatefulSet = resources.jobmanagerStatefulSet ?: throw RuntimeException("JobManager StatefulSet not found")
+
+            val taskmanagerStatefulSet = resources.taskmanagerStatefulSet ?: throw RuntimeException("TaskManager StatefulSet not found")
+
+            val namespace = targetClusterConfig.descriptor.namespace
+
+            val hash = ClusterConfigHash.of(targetClusterConfig)
+
+            val jobmanagerPatches = mutableListOf(createHashPatch(jobmanagerStatefulSet.metadata, hash))
+
+            val taskmanagerPatches = mutableListOf(createHashPatch(taskmanagerStatefulSet.metadata, hash))
+
+            val sidecarPatches = mutableListOf(createHashPatch(deployment.metadata, hash))
+
+            if (currentClusterConfig.jobmanager != targetClusterConfig.jobmanager) {
+                val template = ClusterResourcesFactory.createJobManagerStatefulSet(
+                    ownerOf(jobmanagerStatefulSet.metadata.labels), targetClusterConfig, service.metadata.name
+                ).spec.template
+
+                logger.info("Rolling JobManager StatefulSet ${jobmanagerStatefulSet.metadata.name}...")
+
+                jobmanagerPatches.add(createPatch("/spec/template", template))
+            }
+
+            if (currentClusterConfig.taskmanager != targetClusterConfig.taskmanager) {
+                val replicasOnly = currentClusterConfig.taskmanager.copy(
+                    replicas = targetClusterConfig.taskmanager.replicas
+                ) == targetClusterConfig.taskmanager
+
+                if (replicasOnly) {
+                    logger.info("Scaling TaskManager StatefulSet ${taskmanagerStatefulSet.metadata.name} to ${targetClusterConfig.taskmanager.replicas} replicas...")
+
+                    taskmanagerPatches.add(createPatch("/spec/replicas", targetClusterConfig.taskmanager.replicas))
+                } else {
+                    val template = ClusterResourcesFactory.createTaskManagerStatefulSet(
+                        ownerOf(taskmanagerStatefulSet.metadata.labels), targetClusterConfig, service.metadata.name
+                    ).spec.template
+
+                    logger.info("Rolling TaskManager StatefulSet ${taskmanagerStatefulSet.metadata.name}...")
+
+                    taskmanagerPatches.add(createPatch("/spec/replicas", targetClusterConfig.taskmanager.replicas))
+
+                    taskmanagerPatches.add(createPatch("/spec/template", template))
+                }
+            }
+
+            if (currentClusterConfig.sidecar != targetClusterConfig.sidecar) {
+                val template = ClusterResourcesFactory.createSidecarDeployment(
+                    ownerOf(deployment.metadata.labels), targetClusterConfig
+                ).spec.template
+
+                logger.info("Rolling Sidecar Deployment ${deployment.metadata.name}...")
+
+                sidecarPatches.add(createPatch("/spec/template", template))
+            }
+
+            api.patchNamespacedStatefulSet(jobmanagerStatefulSet.metadata.name, namespace, jobmanagerPatches, null, null)
+
+            api.patchNamespacedStatefulSet(taskmanagerStatefulSet.metadata.name, namespace, taskmanagerPatches, null, null)
+
+            api.patchNamespacedDeployment(deployment.metadata.name, namespace, sidecarPatches, null, null)
+
+            coreApi.patchNamespacedService(service.metadata.name, namespace, listOf(createHashPatch(service.metadata, hash)), null, null)
+
+            logger.info("Done.")
+
+            return "{\"status\":\"SUCCESS\"}"
+        } catch (e : Exception) {
+            throw RuntimeException(e)
+        }
+    }
+
+    fun scale(targetClusterConfig: ClusterConfig, resources: ClusterResources): String {
+        try {
+            val api = AppsV1Api()
+
+            val taskmanagerStatefulSet = resources.taskmanagerStatefulSet ?: throw RuntimeException("TaskManager StatefulSet not found")
+
+            logger.info("Scaling TaskManager StatefulSet ${taskmanagerStatefulSet.metadata.name} to ${targetClusterConfig.taskmanager.replicas} replicas...")
+
+            api.patchNamespacedStatefulSet(
+                taskmanagerStatefulSet.metadata.name,
+                targetClusterConfig.descriptor.namespace,
+                listOf(createPatch("/spec/replicas", targetClusterConfig.taskmanager.replicas)),
+                null,
+                null
+            )
+
+            logger.info("Done.")
+
+            return "{\"status\":\"SUCCESS\"}"
+        } catch (e : Exception) {
+            throw RuntimeException(e)
+        }
+    }
+
+    private fun ownerOf(labels: Map<String, String>?) = labels?.get("owner") ?: "flink-operator"
+
+    private fun createHashPatch(metadata: V1ObjectMeta, hash: String) = if (metadata.annotations == null) {
+        createPatch("/metadata/annotations", mapOf(ClusterConfigHash.ANNOTATION to hash), "add")
+    } else {
+        createPatch("/metadata/annotations/${ClusterConfigHash.ANNOTATION.replace("/", "~1")}", hash, "add")
+    }
+
+    private fun createPatch(path: String, value: Any, op: String = "replace") = mapOf("op" to op, "path" to path, "value" to value)
+}
\ No newline at end of file
@@ -0,0 +1,10 @@
+package com.nextbreakpoint.model
+
+data class ApiRateLimits(
+    val readRate: Double = 20.0,
+    val readBurst: Int = 40,
+    val writeRate: Double = 10.0,
+    val writeBurst: Int = 20,
+    val watchRate: Double = 2.0,
+    val watchBurst: Int = 10
+)
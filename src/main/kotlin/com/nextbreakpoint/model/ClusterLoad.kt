@@ -0,0 +1,10 @@
+package com.nextbreakpoint.model
+
+data class ClusterLoad(
+    val jobId: String?,
+    val taskManagers: Int,
+    val totalSlots: Int,
+    val freeSlots: Int,
+    val cpuLoad: Double?,
+    val backpressured: Boolean
+)
@@ -1,3 +1,17 @@
 package com.nextbreakpoint.model
 
-data class OperatorConfig(val namespace: String)
\ No newline at end of file
+data class OperatorConfig(
+    val namespaces: List<String>,
+    val allNamespaces: Boolean,
+    val workers: Int,
+    val leaderElection: Boolean,
+    val sharding: Boolean,
+    val leaseNamespace: String,
+    val leaseName: String,
+    val metricsPort: Int,
+    val metricsLogInterval: Int?,
+    val autoscalerInterval: Int,
+    val snapshotPath: String?,
+    val snapshotInterval: Int,
+    val apiRateLimits: ApiRateLimits
+)
\ No newline at end of file
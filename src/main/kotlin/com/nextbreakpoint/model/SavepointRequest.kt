@@ -0,0 +1,3 @@
+package com.nextbreakpoint.model
+
+data class SavepointRequest(val jobId: String, val triggerId: String)
@@ -0,0 +1,36 @@
+package com.nextbreakpoint.operator
+
+import com.codahale.metrics.MetricRegistry
+import com.squareup.okhttp.Interceptor
+import com.squareup.okhttp.Response
+import java.io.IOException
+import java.util.concurrent.TimeUnit
+
+class ApiMetricsInterceptor(private val registry: MetricRegistry) : Interceptor {
+    override fun intercept(chain: Interceptor.Chain): Response {
+        val request = chain.request()
+
+        val verb = ApiRequests.verbOf(request)
+
+        val resource = ApiRequests.resourceOf(request)
+
+        val timestamp = System.nanoTime()
+
+        try {
+            val response = chain.proceed(request)
+
+            OperatorMetrics.durations(OperatorMetrics.name("api.requests", "verb" to verb, "resource" to resource), registry)
+                .update(System.nanoTime() - timestamp, TimeUnit.NANOSECONDS)
+
+            if (!response.isSuccessful) {
+                registry.counter(OperatorMetrics.name("api.errors", "verb" to verb, "resource" to resource, "code" to response.code().toString())).inc()
+            }
+
+            return response
+        } catch (e: IOException) {
+            registry.counter(OperatorMetrics.name("api.errors", "verb" to verb, "resource" to resource, "code" to "io")).inc()
+
+            throw e
+        }
+    }
+}
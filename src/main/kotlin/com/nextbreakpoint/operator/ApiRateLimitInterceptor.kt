@@ -0,0 +1,74 @@
+package com.nextbreakpoint.operator
+
+import com.codahale.metrics.MetricRegistry
+import com.nextbreakpoint.model.ApiRateLimits
+import com.squareup.okhttp.Interceptor
+import com.squareup.okhttp.Response
+import org.apache.log4j.Logger
+import java.util.concurrent.TimeUnit
+
+class ApiRateLimitInterceptor(
+    limits: ApiRateLimits,
+    private val registry: MetricRegistry? = null,
+    private val maxRetries: Int = 3,
+    private val maxRetryAfter: Long = 30
+) : Interceptor {
+    companion object {
+        val logger = Logger.getLogger(ApiRateLimitInterceptor::class.simpleName)
+    }
+
+    private val reads = TokenBucket(limits.readRate, limits.readBurst)
+    private val writes = TokenBucket(limits.writeRate, limits.writeBurst)
+    private val watches = TokenBucket(limits.watchRate, limits.watchBurst)
+
+    override fun intercept(chain: Interceptor.Chain): Response {
+        val request = chain.request()
+
+        val verb = ApiRequests.verbOf(request)
+
+        val budget = when (verb) {
+            "get", "list" -> "reads"
+            "watch" -> "watches"
+            else -> "writes"
+        }
+
+        val bucket = when (budget) {
+            "reads" -> reads
+            "watches" -> watches
+            else -> writes
+        }
+
+        var retries = 0
+
+        while (true) {
+            val waitTime = bucket.acquire()
+
+            if (waitTime > 0) {
+                registry?.let { OperatorMetrics.durations(OperatorMetrics.name("api.throttled", "budget" to budget), it) }?.update(waitTime, TimeUnit.NANOSECONDS)
+            }
+
+            val response = chain.proceed(request)
+
+            // the request has been rejected without being processed, therefore it can be sent again
+            if (response.code() != 429 || retries >= maxRetries) {
+                return response
+            }
+
+            retries += 1
+
+            val retryAfter = Math.min(response.header("Retry-After")?.toLongOrNull() ?: 1L, maxRetryAfter)
+
+            response.body().close()
+
+            val resource = ApiRequests.resourceOf(request)
+
+            registry?.counter(OperatorMetrics.name("api.retries", "verb" to verb, "resource" to resource))?.inc()
+
+            logger.warn("Request $verb $resource has been throttled by the server. Retrying in $retryAfter seconds...")
+
+            TimeUnit.SECONDS.sleep(retryAfter)
+
+            registry?.let { OperatorMetrics.durations(OperatorMetrics.name("api.throttled", "budget" to "server"), it) }?.update(retryAfter, TimeUnit.SECONDS)
+        }
+    }
+}
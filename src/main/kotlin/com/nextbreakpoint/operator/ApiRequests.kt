@@ -0,0 +1,41 @@
+package com.nextbreakpoint.operator
+
+import com.squareup.okhttp.Request
+
+object ApiRequests {
+    fun verbOf(request: Request): String {
+        val named = isNamed(request.httpUrl().pathSegments())
+
+        return when (request.method()) {
+            "GET" -> if (request.httpUrl().queryParameter("watch") == "true") "watch" else if (named) "get" else "list"
+            "POST" -> "create"
+            "PUT" -> "update"
+            "PATCH" -> "patch"
+            "DELETE" -> if (named) "delete" else "deletecollection"
+            else -> request.method().toLowerCase()
+        }
+    }
+
+    // paths have the format /api/v1/[namespaces/ns/]resource[/name[/subresource]] or /apis/group/version/...
+    fun resourceOf(request: Request): String {
+        val path = pathOf(request.httpUrl().pathSegments())
+
+        return when (path.size) {
+            0 -> "unknown"
+            1, 2 -> path[0]
+            else -> "${path[0]}/${path[2]}"
+        }
+    }
+
+    private fun isNamed(segments: List<String>) = pathOf(segments).size >= 2
+
+    private fun pathOf(segments: List<String>): List<String> {
+        val path = when (segments.firstOrNull()) {
+            "api" -> segments.drop(2)
+            "apis" -> segments.drop(3)
+            else -> return listOf()
+        }.filter { it.isNotEmpty() }
+
+        return if (path.size > 2 && path[0] == "namespaces") path.drop(2) else path
+    }
+}
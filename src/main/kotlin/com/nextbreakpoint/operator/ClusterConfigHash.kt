@@ -0,0 +1,20 @@
+package com.nextbreakpoint.operator
+
+import com.google.gson.Gson
+import com.nextbreakpoint.model.ClusterConfig
+import java.security.MessageDigest
+
+object ClusterConfigHash {
+    const val ANNOTATION = "flink-operator/config-hash"
+
+    private val gson = Gson()
+
+    // the number of TaskManagers is excluded, so that scaling the cluster only requires to patch the replicas of the StatefulSet
+    fun of(clusterConfig: ClusterConfig): String {
+        val scalableConfig = clusterConfig.copy(taskmanager = clusterConfig.taskmanager.copy(replicas = 0))
+
+        val digest = MessageDigest.getInstance("SHA-256").digest(gson.toJson(scalableConfig).toByteArray(Charsets.UTF_8))
+
+        return digest.joinToString("") { String.format("%02x", it) }
+    }
+}
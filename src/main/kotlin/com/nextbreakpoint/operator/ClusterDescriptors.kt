@@ -0,0 +1,17 @@
+package com.nextbreakpoint.operator
+
+import com.nextbreakpoint.model.ClusterDescriptor
+import com.nextbreakpoint.model.V1FlinkCluster
+import io.kubernetes.client.models.V1ObjectMeta
+
+object ClusterDescriptors {
+    // the resources are named and labelled after metadata.name, not after spec.clusterName
+    fun of(resource: V1FlinkCluster) =
+        ClusterDescriptor(namespace = resource.metadata.namespace, name = resource.metadata.name, environment = resource.spec.environment ?: "test")
+
+    fun of(metadata: V1ObjectMeta): ClusterDescriptor? {
+        val clusterName = metadata.labels?.get("cluster")
+        val environment = metadata.labels?.get("environment")
+        return if (clusterName != null && environment != null) ClusterDescriptor(namespace = metadata.namespace, name = clusterName, environment = environment) else null
+    }
+}
@@ -0,0 +1,8 @@
+package com.nextbreakpoint.operator
+
+data class ClusterExpectation(
+    val hash: String,
+    val replicas: Int,
+    val phase: String,
+    val deadline: Long
+)
@@ -0,0 +1,10 @@
+package com.nextbreakpoint.operator
+
+enum class ClusterResourceKind {
+    Service,
+    Deployment,
+    JobManagerStatefulSet,
+    TaskManagerStatefulSet,
+    JobManagerPersistentVolumeClaim,
+    TaskManagerPersistentVolumeClaim
+}
@@ -0,0 +1,10 @@
+package com.nextbreakpoint.operator
+
+data class ClusterResources(
+    val service: ServiceProjection?,
+    val deployment: DeploymentProjection?,
+    val jobmanagerStatefulSet: StatefulSetProjection?,
+    val taskmanagerStatefulSet: StatefulSetProjection?,
+    val jobmanagerPersistentVolumeClaim: PersistentVolumeClaimProjection?,
+    val taskmanagerPersistentVolumeClaim: PersistentVolumeClaimProjection?
+)
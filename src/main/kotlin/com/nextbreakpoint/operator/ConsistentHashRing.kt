@@ -0,0 +1,29 @@
+package com.nextbreakpoint.operator
+
+import java.nio.ByteBuffer
+import java.security.MessageDigest
+import java.util.TreeMap
+
+class ConsistentHashRing(val members: Set<String>, virtualNodes: Int = 100) {
+    private val ring = TreeMap<Long, String>()
+
+    init {
+        members.forEach { member ->
+            (0 until virtualNodes).forEach { index -> ring.put(hashOf("$member#$index"), member) }
+        }
+    }
+
+    fun ownerOf(key: String): String? {
+        if (ring.isEmpty()) {
+            return null
+        }
+
+        return (ring.ceilingEntry(hashOf(key)) ?: ring.firstEntry()).value
+    }
+
+    private fun hashOf(key: String): Long {
+        val digest = MessageDigest.getInstance("MD5").digest(key.toByteArray(Charsets.UTF_8))
+
+        return ByteBuffer.wrap(digest).long
+    }
+}
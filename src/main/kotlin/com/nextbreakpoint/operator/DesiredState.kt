@@ -0,0 +1,8 @@
+package com.nextbreakpoint.operator
+
+import com.nextbreakpoint.model.ClusterConfig
+
+data class DesiredState(
+    val clusterConfig: ClusterConfig,
+    val hash: String
+)
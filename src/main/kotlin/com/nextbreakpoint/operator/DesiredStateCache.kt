@@ -0,0 +1,45 @@
+package com.nextbreakpoint.operator
+
+import com.nextbreakpoint.model.ClusterConfig
+import com.nextbreakpoint.model.V1FlinkCluster
+import java.util.concurrent.ConcurrentHashMap
+
+class DesiredStateCache {
+    private data class Entry(
+        val generation: Long?,
+        val savepoint: String?,
+        val desiredState: DesiredState
+    )
+
+    private val entries = ConcurrentHashMap<String, Entry>()
+
+    private val hits = OperatorMetrics.registry.counter("desiredstate.hits")
+    private val misses = OperatorMetrics.registry.counter("desiredstate.misses")
+
+    // the desired state only depends on the spec, which can't change without changing the generation, and on the savepoint to restore
+    fun of(cluster: V1FlinkCluster, savepoint: String?, compile: () -> ClusterConfig): DesiredState {
+        val generation = cluster.metadata.generation
+
+        val entry = entries.get(cluster.metadata.uid)
+
+        if (entry != null && generation != null && entry.generation == generation && entry.savepoint == savepoint) {
+            hits.inc()
+
+            return entry.desiredState
+        }
+
+        misses.inc()
+
+        val clusterConfig = compile()
+
+        val desiredState = DesiredState(clusterConfig, ClusterConfigHash.of(clusterConfig))
+
+        entries.put(cluster.metadata.uid, Entry(generation, savepoint, desiredState))
+
+        return desiredState
+    }
+
+    fun forget(cluster: V1FlinkCluster) {
+        entries.remove(cluster.metadata.uid)
+    }
+}
@@ -0,0 +1,47 @@
+package com.nextbreakpoint.operator
+
+import com.codahale.metrics.Metric
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicLongArray
+import java.util.concurrent.atomic.DoubleAdder
+import java.util.concurrent.atomic.LongAdder
+
+// unlike a Timer, the buckets and the sum are cumulative, so that they can be aggregated and rated in Prometheus
+class DurationHistogram(val buckets: List<Double> = defaultBuckets) : Metric {
+    companion object {
+        val defaultBuckets = listOf(0.005, 0.01, 0.025, 0.05, 0.1, 0.25, 0.5, 1.0, 2.5, 5.0, 10.0, 30.0, 60.0)
+    }
+
+    private val counts = AtomicLongArray(buckets.size)
+    private val total = LongAdder()
+    private val seconds = DoubleAdder()
+
+    val count: Long
+        get() = total.sum()
+
+    val sum: Double
+        get() = seconds.sum()
+
+    fun update(duration: Long, unit: TimeUnit) {
+        val value = unit.toNanos(duration) / 1000000000.0
+
+        val index = buckets.indexOfFirst { value <= it }
+
+        if (index >= 0) {
+            counts.incrementAndGet(index)
+        }
+
+        seconds.add(value)
+
+        total.increment()
+    }
+
+    fun cumulativeCounts(): List<Long> {
+        var accumulator = 0L
+
+        return buckets.indices.map { index ->
+            accumulator += counts.get(index)
+            accumulator
+        }
+    }
+}
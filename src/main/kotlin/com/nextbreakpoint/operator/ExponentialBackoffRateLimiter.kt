@@ -0,0 +1,24 @@
+package com.nextbreakpoint.operator
+
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.ThreadLocalRandom
+
+class ExponentialBackoffRateLimiter<K>(
+    private val baseDelay: Long,
+    private val maxDelay: Long,
+    private val jitter: Double = 0.2
+) : RateLimiter<K> {
+    private val failures = ConcurrentHashMap<K, Int>()
+
+    override fun delayOf(key: K): Long {
+        val attempts = failures.merge(key, 1) { count, _ -> count + 1 } ?: 1
+
+        val delay = if (attempts > 30) maxDelay else Math.min(maxDelay, baseDelay shl (attempts - 1))
+
+        return Math.min(maxDelay, delay + (delay * jitter * ThreadLocalRandom.current().nextDouble()).toLong())
+    }
+
+    override fun forget(key: K) {
+        failures.remove(key)
+    }
+}
@@ -0,0 +1,64 @@
+package com.nextbreakpoint.operator
+
+import com.nextbreakpoint.model.V1FlinkCluster
+import com.nextbreakpoint.model.V1FlinkClusterStatus
+import io.kubernetes.client.apis.CustomObjectsApi
+import java.util.concurrent.ConcurrentHashMap
+
+class FlinkClusterStatusWriter(private val objectApi: CustomObjectsApi) {
+    // the cached resource might not include the last status yet, therefore remember what has been written
+    private val writtenStatuses = ConcurrentHashMap<String, V1FlinkClusterStatus>()
+
+    private val currentStatuses = ConcurrentHashMap<String, V1FlinkClusterStatus>()
+
+    fun current(cluster: V1FlinkCluster): V1FlinkClusterStatus? = currentStatuses.get(cluster.metadata.uid) ?: cluster.status
+
+    fun forget(cluster: V1FlinkCluster) {
+        writtenStatuses.remove(cluster.metadata.uid)
+        currentStatuses.remove(cluster.metadata.uid)
+    }
+
+    fun clear() {
+        writtenStatuses.clear()
+        currentStatuses.clear()
+    }
+
+    fun write(cluster: V1FlinkCluster, status: V1FlinkClusterStatus) {
+        currentStatuses.put(cluster.metadata.uid, status)
+
+        if (!hasChanged(writtenStatuses.get(cluster.metadata.uid) ?: cluster.status, status)) {
+            return
+        }
+
+        try {
+            objectApi.patchNamespacedCustomObjectStatus(
+                "beta.nextbreakpoint.com",
+                "v1",
+                cluster.metadata.namespace,
+                "flinkclusters",
+                cluster.metadata.name,
+                mapOf("status" to status)
+            )
+
+            writtenStatuses.put(cluster.metadata.uid, status)
+        } catch (e: Exception) {
+            throw RuntimeException("Can't update status of cluster ${cluster.metadata.name}", e)
+        }
+    }
+
+    private fun hasChanged(currentStatus: V1FlinkClusterStatus?, status: V1FlinkClusterStatus) =
+        currentStatus == null ||
+        currentStatus.phase != status.phase ||
+        currentStatus.observedGeneration != status.observedGeneration ||
+        currentStatus.jobId != status.jobId ||
+        currentStatus.lastSavepoint != status.lastSavepoint ||
+        currentStatus.lastSavepointOrigin != status.lastSavepointOrigin ||
+        currentStatus.savepointTriggerId != status.savepointTriggerId ||
+        currentStatus.savepointStatus != status.savepointStatus ||
+        currentStatus.savepointOrigin != status.savepointOrigin ||
+        currentStatus.taskmanagerReplicas != status.taskmanagerReplicas ||
+        currentStatus.labelSelector != status.labelSelector ||
+        currentStatus.jobmanagerReady != status.jobmanagerReady ||
+        currentStatus.taskmanagerReadyReplicas != status.taskmanagerReadyReplicas ||
+        currentStatus.podRestarts != status.podRestarts
+}
@@ -0,0 +1,8 @@
+package com.nextbreakpoint.operator
+
+import com.google.gson.JsonArray
+
+data class InformerSnapshot(
+    val resourceVersion: String,
+    val resources: JsonArray
+)
@@ -0,0 +1,137 @@
+package com.nextbreakpoint.operator
+
+import io.kubernetes.client.ApiException
+import io.kubernetes.client.apis.CoordinationV1beta1Api
+import io.kubernetes.client.models.V1ObjectMeta
+import io.kubernetes.client.models.V1beta1Lease
+import io.kubernetes.client.models.V1beta1LeaseSpec
+import org.apache.log4j.Logger
+import org.joda.time.DateTime
+
+class LeaderElector(
+    private val namespace: String,
+    private val name: String,
+    private val identity: String,
+    private val onStartedLeading: () -> Unit,
+    private val onStoppedLeading: () -> Unit,
+    private val leaseDuration: Long = 15000,
+    private val renewDeadline: Long = 10000,
+    private val retryPeriod: Long = 2000,
+    private val api: CoordinationV1beta1Api = CoordinationV1beta1Api()
+) {
+    companion object {
+        val logger = Logger.getLogger(LeaderElector::class.simpleName)
+    }
+
+    @Volatile
+    var isLeader = false
+        private set
+
+    private var observedRecord: V1beta1LeaseSpec? = null
+    private var observedTime = 0L
+    private var lastRenewTime = 0L
+
+    fun run() {
+        logger.info("Starting leader election for lease $namespace/$name with identity $identity")
+
+        while (!Thread.currentThread().isInterrupted) {
+            val acquired = try {
+                tryAcquireOrRenew()
+            } catch (e: Exception) {
+                logger.warn("Can't acquire or renew lease $namespace/$name: ${e.message}")
+                false
+            }
+
+            val timestamp = System.currentTimeMillis()
+
+            if (acquired) {
+                lastRenewTime = timestamp
+
+                if (!isLeader) {
+                    logger.info("Acquired lease $namespace/$name. Starting to lead...")
+                    isLeader = true
+                    onStartedLeading()
+                }
+            } else if (isLeader && timestamp - lastRenewTime > renewDeadline) {
+                logger.warn("Lost lease $namespace/$name. Stopping to lead...")
+                isLeader = false
+                onStoppedLeading()
+            }
+
+            Thread.sleep(retryPeriod)
+        }
+    }
+
+    private fun tryAcquireOrRenew(): Boolean {
+        val now = DateTime.now()
+
+        val lease = try {
+            api.readNamespacedLease(name, namespace, null, null, null)
+        } catch (e: ApiException) {
+            if (e.code != 404) {
+                throw e
+            }
+
+            return createLease(now)
+        }
+
+        val spec = lease.spec ?: V1beta1LeaseSpec()
+
+        if (spec != observedRecord) {
+            observedRecord = spec
+            observedTime = System.currentTimeMillis()
+        }
+
+        val holder = spec.holderIdentity
+
+        val duration = spec.leaseDurationSeconds?.toLong()?.times(1000) ?: leaseDuration
+
+        if (holder != null && holder != identity && observedTime + duration > System.currentTimeMillis()) {
+            return false
+        }
+
+        val newSpec = V1beta1LeaseSpec()
+            .holderIdentity(identity)
+            .leaseDurationSeconds((leaseDuration / 1000).toInt())
+            .acquireTime(if (holder == identity) spec.acquireTime ?: now else now)
+            .renewTime(now)
+            .leaseTransitions(if (holder == identity) spec.leaseTransitions ?: 0 else (spec.leaseTransitions ?: 0) + 1)
+
+        return try {
+            val replaced = api.replaceNamespacedLease(name, namespace, lease.spec(newSpec), null, null)
+            observedRecord = replaced.spec
+            observedTime = System.currentTimeMillis()
+            true
+        } catch (e: ApiException) {
+            if (e.code != 409) {
+                throw e
+            }
+            false
+        }
+    }
+
+    private fun createLease(now: DateTime): Boolean {
+        val lease = V1beta1Lease()
+            .metadata(V1ObjectMeta().name(name).namespace(namespace))
+            .spec(
+                V1beta1LeaseSpec()
+                    .holderIdentity(identity)
+                    .leaseDurationSeconds((leaseDuration / 1000).toInt())
+                    .acquireTime(now)
+                    .renewTime(now)
+                    .leaseTransitions(0)
+            )
+
+        return try {
+            val created = api.createNamespacedLease(namespace, lease, null, null, null)
+            observedRecord = created.spec
+            observedTime = System.currentTimeMillis()
+            true
+        } catch (e: ApiException) {
+            if (e.code != 409) {
+                throw e
+            }
+            false
+        }
+    }
+}
\ No newline at end of file
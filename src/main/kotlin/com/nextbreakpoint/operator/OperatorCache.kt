@@ -0,0 +1,163 @@
+package com.nextbreakpoint.operator
+
+import com.nextbreakpoint.model.ClusterDescriptor
+import com.nextbreakpoint.model.V1FlinkCluster
+import java.util.concurrent.ConcurrentHashMap
+
+class OperatorCache {
+    private val flinkClusters = ConcurrentHashMap<ClusterDescriptor, V1FlinkCluster>()
+    private val services = ConcurrentHashMap<ClusterDescriptor, ServiceProjection>()
+    private val deployments = ConcurrentHashMap<ClusterDescriptor, DeploymentProjection>()
+    private val jobmanagerStatefulSets = ConcurrentHashMap<ClusterDescriptor, StatefulSetProjection>()
+    private val taskmanagerStatefulSets = ConcurrentHashMap<ClusterDescriptor, StatefulSetProjection>()
+    private val jobmanagerPersistentVolumeClaims = ConcurrentHashMap<ClusterDescriptor, PersistentVolumeClaimProjection>()
+    private val taskmanagerPersistentVolumeClaims = ConcurrentHashMap<ClusterDescriptor, PersistentVolumeClaimProjection>()
+
+    // pods are owned by the StatefulSets, therefore they don't contribute to the owned kinds
+    private val pods = ConcurrentHashMap<ClusterDescriptor, ConcurrentHashMap<String, PodProjection>>()
+
+    private val ownedKinds = ConcurrentHashMap<ClusterDescriptor, Set<ClusterResourceKind>>()
+    private val orphans = ConcurrentHashMap.newKeySet<ClusterDescriptor>()
+
+    fun onFlinkClusterChanged(descriptor: ClusterDescriptor, resource: V1FlinkCluster) {
+        updateIndex(descriptor) { kinds ->
+            flinkClusters.put(descriptor, resource)
+            kinds
+        }
+    }
+
+    fun onFlinkClusterDeleted(descriptor: ClusterDescriptor) {
+        updateIndex(descriptor) { kinds ->
+            flinkClusters.remove(descriptor)
+            kinds
+        }
+    }
+
+    fun onServiceChanged(descriptor: ClusterDescriptor, resource: ServiceProjection) {
+        services.put(descriptor, resource)
+        addOwnedKind(descriptor, ClusterResourceKind.Service)
+    }
+
+    fun onServiceDeleted(descriptor: ClusterDescriptor) {
+        services.remove(descriptor)
+        removeOwnedKind(descriptor, ClusterResourceKind.Service)
+    }
+
+    fun onDeploymentChanged(descriptor: ClusterDescriptor, resource: DeploymentProjection) {
+        deployments.put(descriptor, resource)
+        addOwnedKind(descriptor, ClusterResourceKind.Deployment)
+    }
+
+    fun onDeploymentDeleted(descriptor: ClusterDescriptor) {
+        deployments.remove(descriptor)
+        removeOwnedKind(descriptor, ClusterResourceKind.Deployment)
+    }
+
+    fun onStatefulSetChanged(descriptor: ClusterDescriptor, resource: StatefulSetProjection) {
+        when (resource.metadata.labels?.get("role")) {
+            null -> Unit
+            "jobmanager" -> {
+                jobmanagerStatefulSets.put(descriptor, resource)
+                addOwnedKind(descriptor, ClusterResourceKind.JobManagerStatefulSet)
+            }
+            else -> {
+                taskmanagerStatefulSets.put(descriptor, resource)
+                addOwnedKind(descriptor, ClusterResourceKind.TaskManagerStatefulSet)
+            }
+        }
+    }
+
+    fun onStatefulSetDeleted(descriptor: ClusterDescriptor, resource: StatefulSetProjection) {
+        when (resource.metadata.labels?.get("role")) {
+            null -> Unit
+            "jobmanager" -> {
+                jobmanagerStatefulSets.remove(descriptor)
+                removeOwnedKind(descriptor, ClusterResourceKind.JobManagerStatefulSet)
+            }
+            else -> {
+                taskmanagerStatefulSets.remove(descriptor)
+                removeOwnedKind(descriptor, ClusterResourceKind.TaskManagerStatefulSet)
+            }
+        }
+    }
+
+    fun onPersistentVolumeClaimChanged(descriptor: ClusterDescriptor, resource: PersistentVolumeClaimProjection) {
+        when (resource.metadata.labels?.get("role")) {
+            null -> Unit
+            "jobmanager" -> {
+                jobmanagerPersistentVolumeClaims.put(descriptor, resource)
+                addOwnedKind(descriptor, ClusterResourceKind.JobManagerPersistentVolumeClaim)
+            }
+            else -> {
+                taskmanagerPersistentVolumeClaims.put(descriptor, resource)
+                addOwnedKind(descriptor, ClusterResourceKind.TaskManagerPersistentVolumeClaim)
+            }
+        }
+    }
+
+    fun onPersistentVolumeClaimDeleted(descriptor: ClusterDescriptor, resource: PersistentVolumeClaimProjection) {
+        when (resource.metadata.labels?.get("role")) {
+            null -> Unit
+            "jobmanager" -> {
+                jobmanagerPersistentVolumeClaims.remove(descriptor)
+                removeOwnedKind(descriptor, ClusterResourceKind.JobManagerPersistentVolumeClaim)
+            }
+            else -> {
+                taskmanagerPersistentVolumeClaims.remove(descriptor)
+                removeOwnedKind(descriptor, ClusterResourceKind.TaskManagerPersistentVolumeClaim)
+            }
+        }
+    }
+
+    fun onPodChanged(descriptor: ClusterDescriptor, resource: PodProjection) {
+        pods.computeIfAbsent(descriptor) { ConcurrentHashMap() }.put(resource.metadata.name, resource)
+    }
+
+    fun onPodDeleted(descriptor: ClusterDescriptor, resource: PodProjection) {
+        pods.computeIfPresent(descriptor) { _, clusterPods ->
+            clusterPods.remove(resource.metadata.name)
+            if (clusterPods.isEmpty()) null else clusterPods
+        }
+    }
+
+    fun getFlinkCluster(descriptor: ClusterDescriptor): V1FlinkCluster? = flinkClusters.get(descriptor)
+
+    fun getPods(descriptor: ClusterDescriptor): List<PodProjection> = pods.get(descriptor)?.values?.toList() ?: listOf()
+
+    fun getFlinkClusters(): Map<ClusterDescriptor, V1FlinkCluster> = flinkClusters.toMap()
+
+    fun getOwnedKinds(descriptor: ClusterDescriptor): Set<ClusterResourceKind> = ownedKinds.get(descriptor) ?: setOf()
+
+    fun isOrphan(descriptor: ClusterDescriptor) = orphans.contains(descriptor)
+
+    fun getOrphans(): Set<ClusterDescriptor> = orphans.toSet()
+
+    fun snapshot(descriptor: ClusterDescriptor) = ClusterResources(
+        service = services.get(descriptor),
+        deployment = deployments.get(descriptor),
+        jobmanagerStatefulSet = jobmanagerStatefulSets.get(descriptor),
+        taskmanagerStatefulSet = taskmanagerStatefulSets.get(descriptor),
+        jobmanagerPersistentVolumeClaim = jobmanagerPersistentVolumeClaims.get(descriptor),
+        taskmanagerPersistentVolumeClaim = taskmanagerPersistentVolumeClaims.get(descriptor)
+    )
+
+    private fun addOwnedKind(descriptor: ClusterDescriptor, kind: ClusterResourceKind) {
+        updateIndex(descriptor) { kinds -> (kinds ?: setOf()) + kind }
+    }
+
+    private fun removeOwnedKind(descriptor: ClusterDescriptor, kind: ClusterResourceKind) {
+        updateIndex(descriptor) { kinds -> kinds?.minus(kind) }
+    }
+
+    private fun updateIndex(descriptor: ClusterDescriptor, update: (Set<ClusterResourceKind>?) -> Set<ClusterResourceKind>?) {
+        ownedKinds.compute(descriptor) { _, kinds ->
+            val newKinds = update(kinds)?.ifEmpty { null }
+            if (newKinds != null && !flinkClusters.containsKey(descriptor)) {
+                orphans.add(descriptor)
+            } else {
+                orphans.remove(descriptor)
+            }
+            newKinds
+        }
+    }
+}
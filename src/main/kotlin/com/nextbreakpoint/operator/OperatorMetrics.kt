@@ -0,0 +1,54 @@
+package com.nextbreakpoint.operator
+
+import com.codahale.metrics.MetricRegistry
+import com.codahale.metrics.Slf4jReporter
+import io.vertx.rxjava.core.Vertx
+import io.vertx.rxjava.ext.web.Router
+import org.apache.log4j.Logger
+import org.slf4j.LoggerFactory
+import java.util.concurrent.TimeUnit
+
+object OperatorMetrics {
+    private val logger = Logger.getLogger(OperatorMetrics::class.simpleName)
+
+    val registry = MetricRegistry()
+
+    fun name(name: String, vararg labels: Pair<String, String>) =
+        if (labels.isEmpty()) name else labels.joinToString(",", "$name{", "}") { "${it.first}=${it.second}" }
+
+    fun durations(name: String, registry: MetricRegistry = this.registry): DurationHistogram {
+        registry.metrics.get(name)?.let { return it as DurationHistogram }
+
+        return try {
+            registry.register(name, DurationHistogram())
+        } catch (e: IllegalArgumentException) {
+            registry.metrics.get(name) as DurationHistogram
+        }
+    }
+
+    fun startReporter(period: Long, unit: TimeUnit) {
+        Slf4jReporter.forRegistry(registry)
+            .outputTo(LoggerFactory.getLogger(OperatorMetrics::class.java))
+            .convertRatesTo(TimeUnit.SECONDS)
+            .convertDurationsTo(TimeUnit.MILLISECONDS)
+            .build()
+            .start(period, unit)
+    }
+
+    fun startServer(port: Int) {
+        val vertx = Vertx.vertx()
+
+        val router = Router.router(vertx)
+
+        router.get("/metrics").handler { context ->
+            context.response()
+                .putHeader("content-type", "text/plain; version=0.0.4")
+                .end(PrometheusFormatter.format(registry))
+        }
+
+        vertx.createHttpServer().requestHandler(router).rxListen(port).subscribe(
+            { logger.info("Metrics available on port $port") },
+            { error -> logger.error("Can't start metrics server on port $port", error) }
+        )
+    }
+}
@@ -0,0 +1,14 @@
+package com.nextbreakpoint.operator
+
+import com.nextbreakpoint.model.ClusterDescriptor
+
+data class ExpectationSnapshot(
+    val descriptor: ClusterDescriptor,
+    val expectation: ClusterExpectation
+)
+
+data class OperatorSnapshot(
+    val timestamp: Long,
+    val informers: Map<String, InformerSnapshot>,
+    val expectations: List<ExpectationSnapshot>
+)
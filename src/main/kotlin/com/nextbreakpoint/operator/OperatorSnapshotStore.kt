@@ -0,0 +1,42 @@
+package com.nextbreakpoint.operator
+
+import com.google.gson.Gson
+import org.apache.log4j.Logger
+import java.io.File
+import java.nio.file.Files
+import java.nio.file.StandardCopyOption
+
+class OperatorSnapshotStore(private val path: String, private val gson: Gson) {
+    companion object {
+        val logger = Logger.getLogger(OperatorSnapshotStore::class.simpleName)
+    }
+
+    fun read(): OperatorSnapshot? {
+        val file = File(path)
+
+        if (!file.exists()) {
+            return null
+        }
+
+        return try {
+            file.bufferedReader(Charsets.UTF_8).use { reader -> gson.fromJson(reader, OperatorSnapshot::class.java) }
+        } catch (e: Exception) {
+            logger.warn("Can't read snapshot $path: ${e.message}")
+            null
+        }
+    }
+
+    fun write(snapshot: OperatorSnapshot) {
+        val file = File(path)
+
+        val tempFile = File(file.absoluteFile.parentFile, "${file.name}.tmp")
+
+        try {
+            tempFile.bufferedWriter(Charsets.UTF_8).use { writer -> gson.toJson(snapshot, writer) }
+
+            Files.move(tempFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE)
+        } catch (e: Exception) {
+            logger.warn("Can't write snapshot $path: ${e.message}")
+        }
+    }
+}
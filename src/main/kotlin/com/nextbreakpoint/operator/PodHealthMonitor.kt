@@ -0,0 +1,99 @@
+package com.nextbreakpoint.operator
+
+import com.nextbreakpoint.model.V1FlinkCluster
+import io.kubernetes.client.apis.CoreV1Api
+import io.kubernetes.client.models.V1Event
+import io.kubernetes.client.models.V1EventSource
+import io.kubernetes.client.models.V1ObjectMeta
+import io.kubernetes.client.models.V1ObjectReference
+import org.apache.log4j.Logger
+import org.joda.time.DateTime
+import java.util.concurrent.ConcurrentHashMap
+
+class PodHealthMonitor(private val coreApi: CoreV1Api) {
+    companion object {
+        val logger = Logger.getLogger(PodHealthMonitor::class.simpleName)
+    }
+
+    private val restarts = ConcurrentHashMap<String, Int>()
+    private val waitingReasons = ConcurrentHashMap<String, String>()
+
+    fun forget(pod: PodProjection) {
+        restarts.remove(pod.metadata.uid)
+        waitingReasons.remove(pod.metadata.uid)
+    }
+
+    fun clear() {
+        restarts.clear()
+        waitingReasons.clear()
+    }
+
+    fun check(cluster: V1FlinkCluster, pods: List<PodProjection>) {
+        pods.forEach { pod ->
+            val uid = pod.metadata.uid
+            val role = pod.metadata.labels?.get("role") ?: "sidecar"
+
+            val previousRestarts = restarts.put(uid, pod.restarts)
+
+            if (previousRestarts != null && pod.restarts > previousRestarts) {
+                val reason = if (pod.terminationReason == "OOMKilled") "OOMKilled" else "PodRestarted"
+
+                OperatorMetrics.registry.counter(OperatorMetrics.name(
+                    "pods.restarts",
+                    "namespace" to pod.metadata.namespace,
+                    "cluster" to cluster.metadata.name,
+                    "role" to role,
+                    "reason" to reason
+                )).inc((pod.restarts - previousRestarts).toLong())
+
+                val message = if (reason == "OOMKilled") {
+                    "Pod ${pod.metadata.name} was killed because it ran out of memory (restarts ${pod.restarts}). Consider increasing ${role}Memory"
+                } else {
+                    "Pod ${pod.metadata.name} has restarted (restarts ${pod.restarts}, last termination reason ${pod.terminationReason ?: "unknown"})"
+                }
+
+                emit(cluster, reason, message)
+            }
+
+            val waitingReason = pod.waitingReason
+
+            if (waitingReason == "CrashLoopBackOff" || waitingReason == "ImagePullBackOff" || waitingReason == "ErrImagePull") {
+                if (waitingReasons.put(uid, waitingReason) != waitingReason) {
+                    emit(cluster, waitingReason, "Pod ${pod.metadata.name} is waiting ($waitingReason)")
+                }
+            } else {
+                waitingReasons.remove(uid)
+            }
+        }
+    }
+
+    private fun emit(cluster: V1FlinkCluster, reason: String, message: String) {
+        logger.warn("Cluster ${cluster.metadata.name}: $message")
+
+        val timestamp = DateTime.now()
+
+        val event = V1Event()
+            .metadata(V1ObjectMeta().generateName("${cluster.metadata.name}-").namespace(cluster.metadata.namespace))
+            .involvedObject(
+                V1ObjectReference()
+                    .apiVersion(cluster.apiVersion ?: "beta.nextbreakpoint.com/v1")
+                    .kind(cluster.kind ?: "FlinkCluster")
+                    .name(cluster.metadata.name)
+                    .namespace(cluster.metadata.namespace)
+                    .uid(cluster.metadata.uid)
+            )
+            .type("Warning")
+            .reason(reason)
+            .message(message)
+            .count(1)
+            .firstTimestamp(timestamp)
+            .lastTimestamp(timestamp)
+            .source(V1EventSource().component("flink-operator"))
+
+        try {
+            coreApi.createNamespacedEvent(cluster.metadata.namespace, event, null, null, null)
+        } catch (e: Exception) {
+            logger.warn("Can't create event for cluster ${cluster.metadata.name}: ${e.message}")
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package com.nextbreakpoint.operator
+
+import com.codahale.metrics.Counter
+import com.codahale.metrics.Gauge
+import com.codahale.metrics.Histogram
+import com.codahale.metrics.Meter
+import com.codahale.metrics.Metric
+import com.codahale.metrics.MetricRegistry
+import com.codahale.metrics.Snapshot
+import com.codahale.metrics.Timer
+import java.util.concurrent.TimeUnit
+
+object PrometheusFormatter {
+    private const val prefix = "flink_operator_"
+
+    private val quantiles = listOf(0.5, 0.75, 0.95, 0.98, 0.99, 0.999)
+
+    // metric names have the format name{label=value,label=value}, see OperatorMetrics.name
+    fun format(registry: MetricRegistry): String {
+        val families = registry.metrics.entries
+            .map { entry -> parseName(entry.key) to entry.value }
+            .groupBy { entry -> entry.first.first }
+            .toSortedMap()
+
+        val builder = StringBuilder()
+
+        families.forEach { (family, metrics) ->
+            val type = typeOf(metrics.first().second) ?: return@forEach
+
+            // the samples of a counter must have the same name of the family
+            val familyName = if (type == "counter" && !family.endsWith("_total")) "${family}_total" else family
+
+            builder.append("# TYPE $familyName $type\n")
+
+            metrics.forEach { (name, metric) -> formatMetric(builder, familyName, name.second, metric) }
+        }
+
+        return builder.toString()
+    }
+
+    private fun formatMetric(builder: StringBuilder, family: String, labels: Map<String, String>, metric: Metric) {
+        when (metric) {
+            is Gauge<*> -> {
+                when (val value = metric.value) {
+                    is Number -> appendSample(builder, family, labels, value.toDouble())
+                    is Boolean -> appendSample(builder, family, labels, if (value) 1.0 else 0.0)
+                }
+            }
+            is Counter -> appendSample(builder, family, labels, metric.count.toDouble())
+            is Meter -> appendSample(builder, family, labels, metric.count.toDouble())
+            is DurationHistogram -> appendHistogram(builder, family, labels, metric)
+            is Timer -> appendSummary(builder, family, labels, metric.snapshot, metric.count, 1.0 / TimeUnit.SECONDS.toNanos(1))
+            is Histogram -> appendSummary(builder, family, labels, metric.snapshot, metric.count, 1.0)
+        }
+    }
+
+    private fun appendHistogram(builder: StringBuilder, family: String, labels: Map<String, String>, histogram: DurationHistogram) {
+        val counts = histogram.cumulativeCounts()
+
+        val sum = histogram.sum
+
+        val count = Math.max(histogram.count, counts.lastOrNull() ?: 0)
+
+        histogram.buckets.forEachIndexed { index, bucket ->
+            appendSample(builder, "${family}_bucket", labels + ("le" to bucket.toString()), counts[index].toDouble())
+        }
+
+        appendSample(builder, "${family}_bucket", labels + ("le" to "+Inf"), count.toDouble())
+        appendSample(builder, "${family}_sum", labels, sum)
+        appendSample(builder, "${family}_count", labels, count.toDouble())
+    }
+
+    // the reservoir of a Timer decays, therefore its mean can't provide a cumulative sum
+    private fun appendSummary(builder: StringBuilder, family: String, labels: Map<String, String>, snapshot: Snapshot, count: Long, factor: Double) {
+        quantiles.forEach { quantile ->
+            appendSample(builder, family, labels + ("quantile" to quantile.toString()), snapshot.getValue(quantile) * factor)
+        }
+
+        appendSample(builder, "${family}_count", labels, count.toDouble())
+    }
+
+    private fun appendSample(builder: StringBuilder, name: String, labels: Map<String, String>, value: Double) {
+        builder.append(name)
+
+        if (labels.isNotEmpty()) {
+            builder.append(labels.entries.joinToString(",", "{", "}") { "${sanitize(it.key)}=\"${escape(it.value)}\"" })
+        }
+
+        builder.append(' ').append(value).append('\n')
+    }
+
+    private fun typeOf(metric: Metric) = when (metric) {
+        is Gauge<*> -> "gauge"
+        is Counter -> "counter"
+        is Meter -> "counter"
+        is DurationHistogram -> "histogram"
+        is Timer -> "summary"
+        is Histogram -> "summary"
+        else -> null
+    }
+
+    private fun parseName(name: String): Pair<String, Map<String, String>> {
+        val index = name.indexOf('{')
+
+        if (index < 0 || !name.endsWith("}")) {
+            return prefix + sanitize(name) to mapOf()
+        }
+
+        val labels = name.substring(index + 1, name.length - 1)
+            .split(",")
+            .filter { it.contains("=") }
+            .map { it.substringBefore("=") to it.substringAfter("=") }
+            .toMap()
+
+        return prefix + sanitize(name.substring(0, index)) to labels
+    }
+
+    private fun sanitize(name: String) = name.replace(Regex("[^a-zA-Z0-9_:]"), "_")
+
+    private fun escape(value: String) = value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n")
+}
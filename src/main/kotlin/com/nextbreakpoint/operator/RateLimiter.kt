@@ -0,0 +1,7 @@
+package com.nextbreakpoint.operator
+
+interface RateLimiter<K> {
+    fun delayOf(key: K): Long
+
+    fun forget(key: K)
+}
@@ -0,0 +1,38 @@
+package com.nextbreakpoint.operator
+
+import com.nextbreakpoint.model.V1FlinkCluster
+import io.kubernetes.client.models.V1ObjectMeta
+
+object ResourceChangePredicates {
+    // the status of a FlinkCluster is written by the operator itself, and spec changes bump the generation
+    fun isRelevant(oldResource: V1FlinkCluster, newResource: V1FlinkCluster) =
+        hasMetadataChanged(oldResource.metadata, newResource.metadata) ||
+        oldResource.spec != newResource.spec
+
+    // services don't have a generation, therefore compare the projected spec directly
+    fun isRelevant(oldResource: ServiceProjection, newResource: ServiceProjection) =
+        hasMetadataChanged(oldResource.metadata, newResource.metadata) ||
+        oldResource.type != newResource.type
+
+    fun isRelevant(oldResource: DeploymentProjection, newResource: DeploymentProjection) =
+        hasMetadataChanged(oldResource.metadata, newResource.metadata)
+
+    fun isRelevant(oldResource: StatefulSetProjection, newResource: StatefulSetProjection) =
+        hasMetadataChanged(oldResource.metadata, newResource.metadata)
+
+    fun isRelevant(oldResource: PersistentVolumeClaimProjection, newResource: PersistentVolumeClaimProjection) =
+        hasMetadataChanged(oldResource.metadata, newResource.metadata)
+
+    fun isRelevant(oldResource: PodProjection, newResource: PodProjection) =
+        hasMetadataChanged(oldResource.metadata, newResource.metadata) ||
+        oldResource.ready != newResource.ready ||
+        oldResource.restarts != newResource.restarts ||
+        oldResource.waitingReason != newResource.waitingReason ||
+        oldResource.terminationReason != newResource.terminationReason
+
+    private fun hasMetadataChanged(oldMetadata: V1ObjectMeta?, newMetadata: V1ObjectMeta?) =
+        oldMetadata?.generation != newMetadata?.generation ||
+        oldMetadata?.labels != newMetadata?.labels ||
+        oldMetadata?.annotations != newMetadata?.annotations ||
+        oldMetadata?.deletionTimestamp != newMetadata?.deletionTimestamp
+}
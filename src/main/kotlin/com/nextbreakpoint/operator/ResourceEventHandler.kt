@@ -0,0 +1,9 @@
+package com.nextbreakpoint.operator
+
+interface ResourceEventHandler<T> {
+    fun onAdd(resource: T)
+
+    fun onUpdate(oldResource: T, newResource: T)
+
+    fun onDelete(resource: T)
+}
@@ -0,0 +1,3 @@
+package com.nextbreakpoint.operator
+
+class ResourceExpiredException(message: String) : RuntimeException(message)
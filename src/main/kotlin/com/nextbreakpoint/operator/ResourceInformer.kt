@@ -0,0 +1,188 @@
+package com.nextbreakpoint.operator
+
+import com.google.gson.Gson
+import com.google.gson.JsonArray
+import io.kubernetes.client.ApiException
+import io.kubernetes.client.models.V1ObjectMeta
+import io.kubernetes.client.util.Watch
+import org.apache.log4j.Logger
+import java.net.SocketTimeoutException
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.TimeUnit
+
+class ResourceInformer<T, P>(
+    val kind: String,
+    private val listResources: (String?) -> ResourcePage<T>,
+    private val watchResources: (String) -> Watch<T>,
+    private val projectionOf: (T) -> P,
+    private val projectionClass: Class<P>,
+    metadataOf: (P) -> V1ObjectMeta,
+    private val handler: ResourceEventHandler<P>
+) {
+    companion object {
+        val logger = Logger.getLogger(ResourceInformer::class.simpleName)
+    }
+
+    val store = ResourceStore(metadataOf)
+
+    private val synced = CountDownLatch(1)
+
+    private val backoff = ExponentialBackoffRateLimiter<String>(1000L, 60000L)
+
+    private val restarts = OperatorMetrics.registry.counter(OperatorMetrics.name("watch.restarts", "kind" to kind))
+
+    private val relists = OperatorMetrics.registry.counter(OperatorMetrics.name("watch.relists", "kind" to kind))
+
+    @Volatile
+    private var resourceVersion: String? = null
+
+    fun waitForSync(timeout: Long, unit: TimeUnit) = synced.await(timeout, unit)
+
+    // the version is read before the resources, so that the watch can only replay events which are already in the snapshot
+    fun snapshot(gson: Gson): InformerSnapshot? {
+        val version = resourceVersion ?: return null
+
+        val resources = JsonArray()
+
+        store.list().forEach { resource -> resources.add(gson.toJsonTree(resource, projectionClass)) }
+
+        return InformerSnapshot(version, resources)
+    }
+
+    // must be invoked before run, the watch resumes from the version of the snapshot or relists when the version has expired
+    fun restore(gson: Gson, snapshot: InformerSnapshot) {
+        val resources = snapshot.resources.map { gson.fromJson(it, projectionClass) }
+
+        replace(resources)
+
+        resourceVersion = snapshot.resourceVersion
+
+        logger.info("Restored ${resources.size} $kind resource${if (resources.size == 1) "" else "s"} at version ${snapshot.resourceVersion}")
+    }
+
+    fun run() {
+        while (!Thread.currentThread().isInterrupted) {
+            var failed = false
+
+            try {
+                watch(resourceVersion ?: relist())
+            } catch (e: InterruptedException) {
+                break
+            } catch (e: ResourceExpiredException) {
+                logger.info("Resource version of $kind resources has expired. Relisting...")
+                resourceVersion = null
+            } catch (e: ApiException) {
+                if (e.code == 410) {
+                    logger.info("Resource version of $kind resources has expired. Relisting...")
+                    resourceVersion = null
+                } else {
+                    logger.error("Can't watch $kind resources", e)
+                    failed = true
+                }
+            } catch (e: RuntimeException) {
+                if (e.cause !is SocketTimeoutException) {
+                    logger.error("Can't watch $kind resources", e)
+                    failed = true
+                }
+            } catch (e: Exception) {
+                logger.error("Can't watch $kind resources", e)
+                failed = true
+            }
+
+            restarts.inc()
+
+            if (failed) {
+                try {
+                    Thread.sleep(backoff.delayOf(kind))
+                } catch (e: InterruptedException) {
+                    break
+                }
+            } else {
+                backoff.forget(kind)
+            }
+        }
+    }
+
+    private fun relist(): String {
+        relists.inc()
+
+        val resources = mutableListOf<P>()
+
+        var continueToken: String? = null
+
+        var version: String
+
+        do {
+            val page = listResources(continueToken)
+            resources.addAll(page.items.map(projectionOf))
+            version = page.resourceVersion
+            continueToken = page.continueToken
+        } while (continueToken?.isNotEmpty() == true)
+
+        logger.info("Found ${resources.size} $kind resource${if (resources.size == 1) "" else "s"} at version $version")
+
+        replace(resources)
+
+        resourceVersion = version
+
+        synced.countDown()
+
+        return version
+    }
+
+    private fun replace(resources: List<P>) {
+        val keys = mutableSetOf<String>()
+
+        resources.forEach { resource ->
+            keys.add(store.keyOf(resource))
+
+            val oldResource = store.put(resource)
+
+            if (oldResource == null) {
+                handler.onAdd(resource)
+            } else if (store.resourceVersionOf(oldResource) != store.resourceVersionOf(resource)) {
+                handler.onUpdate(oldResource, resource)
+            }
+        }
+
+        store.keys().filter { !keys.contains(it) }.forEach { key ->
+            store.removeKey(key)?.let { handler.onDelete(it) }
+        }
+    }
+
+    private fun watch(version: String) {
+        watchResources(version).use { watch ->
+            synced.countDown()
+
+            watch.forEach { event ->
+                OperatorMetrics.registry.counter(OperatorMetrics.name("watch.events", "kind" to kind, "type" to event.type)).inc()
+
+                when (event.type) {
+                    "ADDED", "MODIFIED" -> {
+                        val resource = projectionOf(event.`object`)
+                        val oldResource = store.put(resource)
+                        resourceVersion = store.resourceVersionOf(resource)
+                        if (oldResource == null) {
+                            handler.onAdd(resource)
+                        } else {
+                            handler.onUpdate(oldResource, resource)
+                        }
+                    }
+                    "DELETED" -> {
+                        val resource = projectionOf(event.`object`)
+                        store.remove(resource)
+                        resourceVersion = store.resourceVersionOf(resource)
+                        handler.onDelete(resource)
+                    }
+                    "ERROR" -> {
+                        if (event.status?.code == 410) {
+                            throw ResourceExpiredException(event.status?.message ?: "Resource version $version is too old")
+                        } else {
+                            throw RuntimeException("Watch of $kind resources failed: ${event.status?.message}")
+                        }
+                    }
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,7 @@
+package com.nextbreakpoint.operator
+
+data class ResourcePage<T>(
+    val items: List<T>,
+    val resourceVersion: String,
+    val continueToken: String?
+)
@@ -0,0 +1,115 @@
+package com.nextbreakpoint.operator
+
+import com.nextbreakpoint.model.EnvironmentVariable
+import io.kubernetes.client.models.V1Container
+import io.kubernetes.client.models.V1Deployment
+import io.kubernetes.client.models.V1ObjectMeta
+import io.kubernetes.client.models.V1PersistentVolumeClaim
+import io.kubernetes.client.models.V1PersistentVolumeClaimSpec
+import io.kubernetes.client.models.V1Pod
+import io.kubernetes.client.models.V1Service
+import io.kubernetes.client.models.V1StatefulSet
+
+data class ContainerProjection(
+    val image: String?,
+    val pullPolicy: String?,
+    val arguments: List<String>,
+    val environmentVariables: List<EnvironmentVariable>,
+    val cpus: Float?
+)
+
+data class VolumeClaimProjection(
+    val storageClass: String?,
+    val size: Int?
+)
+
+data class ServiceProjection(
+    val metadata: V1ObjectMeta,
+    val type: String?
+)
+
+data class DeploymentProjection(
+    val metadata: V1ObjectMeta,
+    val serviceAccount: String?,
+    val pullSecrets: String?,
+    val containers: List<ContainerProjection>
+)
+
+data class StatefulSetProjection(
+    val metadata: V1ObjectMeta,
+    val replicas: Int?,
+    val serviceAccount: String?,
+    val containers: List<ContainerProjection>,
+    val volumeClaims: List<VolumeClaimProjection>
+)
+
+data class PersistentVolumeClaimProjection(
+    val metadata: V1ObjectMeta
+)
+
+data class PodProjection(
+    val metadata: V1ObjectMeta,
+    val ready: Boolean,
+    val restarts: Int,
+    val waitingReason: String?,
+    val terminationReason: String?
+)
+
+object ResourceProjections {
+    fun of(resource: V1Service) = ServiceProjection(
+        metadata = projectMetadata(resource.metadata),
+        type = resource.spec?.type
+    )
+
+    fun of(resource: V1Deployment) = DeploymentProjection(
+        metadata = projectMetadata(resource.metadata),
+        serviceAccount = resource.spec?.template?.spec?.serviceAccount,
+        pullSecrets = resource.spec?.template?.spec?.imagePullSecrets?.firstOrNull()?.name,
+        containers = resource.spec?.template?.spec?.containers?.map { projectContainer(it) }.orEmpty()
+    )
+
+    fun of(resource: V1StatefulSet) = StatefulSetProjection(
+        metadata = projectMetadata(resource.metadata),
+        replicas = resource.spec?.replicas,
+        serviceAccount = resource.spec?.template?.spec?.serviceAccount,
+        containers = resource.spec?.template?.spec?.containers?.map { projectContainer(it) }.orEmpty(),
+        volumeClaims = resource.spec?.volumeClaimTemplates?.map { projectVolumeClaim(it.spec) }.orEmpty()
+    )
+
+    fun of(resource: V1PersistentVolumeClaim) = PersistentVolumeClaimProjection(
+        metadata = projectMetadata(resource.metadata)
+    )
+
+    fun of(resource: V1Pod) = PodProjection(
+        metadata = projectMetadata(resource.metadata),
+        ready = resource.status?.containerStatuses?.let { statuses -> statuses.isNotEmpty() && statuses.all { it.isReady == true } } ?: false,
+        restarts = resource.status?.containerStatuses?.sumBy { it.restartCount ?: 0 } ?: 0,
+        waitingReason = resource.status?.containerStatuses?.mapNotNull { it.state?.waiting?.reason }?.firstOrNull(),
+        terminationReason = resource.status?.containerStatuses?.mapNotNull { it.lastState?.terminated?.reason }?.firstOrNull()
+    )
+
+    // only the annotations owned by the operator are retained, because annotations
+    // like kubectl.kubernetes.io/last-applied-configuration can be larger than the rest
+    private fun projectMetadata(metadata: V1ObjectMeta) = V1ObjectMeta()
+        .namespace(metadata.namespace)
+        .name(metadata.name)
+        .uid(metadata.uid)
+        .resourceVersion(metadata.resourceVersion)
+        .generation(metadata.generation)
+        .deletionTimestamp(metadata.deletionTimestamp)
+        .labels(metadata.labels?.toMap())
+        .annotations(metadata.annotations?.filterKeys { it.startsWith("flink-operator/") })
+
+    private fun projectContainer(container: V1Container) = ContainerProjection(
+        image = container.image,
+        pullPolicy = container.imagePullPolicy,
+        arguments = container.args?.toList().orEmpty(),
+        environmentVariables = container.env?.filter { it.value != null }?.map { EnvironmentVariable(it.name, it.value) }.orEmpty(),
+        cpus = container.resources?.limits?.get("cpu")?.number?.toFloat()
+    )
+
+    private fun projectVolumeClaim(spec: V1PersistentVolumeClaimSpec?) = VolumeClaimProjection(
+        storageClass = spec?.storageClassName,
+        size = spec?.resources?.requests?.get("storage")?.number?.toInt()
+    )
+}
@@ -0,0 +1,27 @@
+package com.nextbreakpoint.operator
+
+import io.kubernetes.client.models.V1ObjectMeta
+import java.util.concurrent.ConcurrentHashMap
+
+class ResourceStore<T>(private val metadataOf: (T) -> V1ObjectMeta) {
+    private val resources = ConcurrentHashMap<String, T>()
+
+    fun keyOf(resource: T): String {
+        val metadata = metadataOf(resource)
+        return "${metadata.namespace}/${metadata.name}"
+    }
+
+    fun resourceVersionOf(resource: T): String? = metadataOf(resource).resourceVersion
+
+    fun get(namespace: String, name: String): T? = resources.get("$namespace/$name")
+
+    fun put(resource: T): T? = resources.put(keyOf(resource), resource)
+
+    fun remove(resource: T): T? = resources.remove(keyOf(resource))
+
+    fun keys(): Set<String> = resources.keys.toSet()
+
+    fun removeKey(key: String): T? = resources.remove(key)
+
+    fun list(): List<T> = resources.values.toList()
+}
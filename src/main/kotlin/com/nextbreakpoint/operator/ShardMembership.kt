@@ -0,0 +1,174 @@
+package com.nextbreakpoint.operator
+
+import io.kubernetes.client.ApiException
+import io.kubernetes.client.apis.CoordinationV1beta1Api
+import io.kubernetes.client.models.V1DeleteOptions
+import io.kubernetes.client.models.V1ObjectMeta
+import io.kubernetes.client.models.V1beta1Lease
+import io.kubernetes.client.models.V1beta1LeaseSpec
+import org.apache.log4j.Logger
+import org.joda.time.DateTime
+import java.util.UUID
+
+class ShardMembership(
+    private val namespace: String,
+    private val group: String,
+    private val identity: String,
+    private val onMembershipChanged: (ConsistentHashRing, ConsistentHashRing) -> Unit,
+    private val onStartedOwning: () -> Unit,
+    private val onStoppedOwning: () -> Unit,
+    private val leaseDuration: Long = 15000,
+    private val renewDeadline: Long = 10000,
+    private val retryPeriod: Long = 2000
+) {
+    companion object {
+        val logger = Logger.getLogger(ShardMembership::class.simpleName)
+
+        const val GROUP_LABEL = "flink-operator/shard-group"
+    }
+
+    private val api = CoordinationV1beta1Api()
+
+    private val name = "$group-${UUID.randomUUID().toString().substring(0, 8)}"
+
+    // the renew time is written by each replica with its own clock, therefore a lease is
+    // considered expired when it hasn't changed for the lease duration on the local clock
+    private val observedRecords = mutableMapOf<String, Pair<V1beta1LeaseSpec?, Long>>()
+
+    @Volatile
+    var ring = ConsistentHashRing(setOf(identity))
+        private set
+
+    @Volatile
+    var isActive = false
+        private set
+
+    private var lastRenewTime = 0L
+
+    fun isOwner(key: String) = isActive && ring.ownerOf(key) == identity
+
+    fun join() {
+        logger.info("Joining shard group $namespace/$group with identity $identity")
+
+        Runtime.getRuntime().addShutdownHook(Thread { leave() })
+
+        renew()
+
+        lastRenewTime = System.currentTimeMillis()
+
+        ring = ConsistentHashRing(listMembers())
+
+        isActive = true
+
+        logger.info("Members of shard group $namespace/$group are ${ring.members.joinToString()}")
+    }
+
+    fun run() {
+        while (!Thread.currentThread().isInterrupted) {
+            Thread.sleep(retryPeriod)
+
+            try {
+                renew()
+
+                lastRenewTime = System.currentTimeMillis()
+
+                val members = listMembers()
+
+                if (!isActive) {
+                    logger.info("Renewed lease of shard group $namespace/$group. Members are ${members.joinToString()}")
+
+                    ring = ConsistentHashRing(members)
+
+                    isActive = true
+
+                    onStartedOwning()
+                } else if (members != ring.members) {
+                    logger.info("Members of shard group $namespace/$group are ${members.joinToString()}")
+
+                    val oldRing = ring
+
+                    ring = ConsistentHashRing(members)
+
+                    onMembershipChanged(oldRing, ring)
+                }
+            } catch (e: Exception) {
+                logger.warn("Can't update membership of shard group $namespace/$group: ${e.message}")
+            }
+
+            if (isActive && System.currentTimeMillis() - lastRenewTime > renewDeadline) {
+                logger.warn("Lost lease of shard group $namespace/$group. Stopping to reconcile...")
+
+                isActive = false
+
+                onStoppedOwning()
+            }
+        }
+    }
+
+    private fun renew() {
+        val now = DateTime.now()
+
+        val spec = V1beta1LeaseSpec()
+            .holderIdentity(identity)
+            .leaseDurationSeconds((leaseDuration / 1000).toInt())
+            .renewTime(now)
+
+        val lease = try {
+            api.readNamespacedLease(name, namespace, null, null, null)
+        } catch (e: ApiException) {
+            if (e.code != 404) {
+                throw e
+            }
+
+            val newLease = V1beta1Lease()
+                .metadata(V1ObjectMeta().name(name).namespace(namespace).labels(mapOf(GROUP_LABEL to group)))
+                .spec(spec.acquireTime(now))
+
+            api.createNamespacedLease(namespace, newLease, null, null, null)
+
+            return
+        }
+
+        api.replaceNamespacedLease(name, namespace, lease.spec(spec.acquireTime(lease.spec?.acquireTime ?: now)), null, null)
+    }
+
+    private fun listMembers(): Set<String> {
+        val leases = api.listNamespacedLease(namespace, null, null, null, null, "$GROUP_LABEL=$group", null, null, 30, null)
+
+        val timestamp = System.currentTimeMillis()
+
+        val members = leases.items.mapNotNull { lease ->
+            val spec = lease.spec
+
+            val observedRecord = observedRecords.get(lease.metadata.name)
+
+            val observedTime = if (observedRecord == null || observedRecord.first != spec) timestamp else observedRecord.second
+
+            observedRecords.put(lease.metadata.name, spec to observedTime)
+
+            val duration = spec?.leaseDurationSeconds?.toLong()?.times(1000) ?: leaseDuration
+
+            if (lease.metadata.name == name || observedTime + duration > timestamp) spec?.holderIdentity else null
+        }.toSet()
+
+        observedRecords.keys.retainAll(leases.items.map { it.metadata.name })
+
+        observedRecords.filter { (_, record) -> record.second + leaseDuration * 4 < timestamp }.keys.forEach { staleName ->
+            try {
+                api.deleteNamespacedLease(staleName, namespace, V1DeleteOptions(), null, null, null, null, null)
+            } catch (e: Exception) {
+                logger.warn("Can't delete lease $namespace/$staleName: ${e.message}")
+            }
+        }
+
+        return members + identity
+    }
+
+    private fun leave() {
+        try {
+            api.deleteNamespacedLease(name, namespace, V1DeleteOptions(), null, null, null, null, null)
+        } catch (e: Exception) {
+            logger.warn("Can't delete lease $namespace/$name: ${e.message}")
+        }
+    }
+}
@@ -0,0 +1,159 @@
+package com.nextbreakpoint.operator
+
+import com.nextbreakpoint.model.ClusterDescriptor
+import com.nextbreakpoint.model.ClusterLoad
+import com.nextbreakpoint.model.V1FlinkCluster
+import io.kubernetes.client.apis.CustomObjectsApi
+import org.apache.log4j.Logger
+import java.util.concurrent.ConcurrentHashMap
+
+class TaskManagerAutoscaler(
+    private val objectApi: CustomObjectsApi,
+    private val loadOf: (ClusterDescriptor) -> ClusterLoad,
+    private val rescaleJob: (ClusterDescriptor, String, Int) -> Unit,
+    private val targetCpuLoad: Double = 0.6,
+    private val rescaleInterval: Long = 60000
+) {
+    companion object {
+        val logger = Logger.getLogger(TaskManagerAutoscaler::class.simpleName)
+    }
+
+    private val scaleTimes = ConcurrentHashMap<ClusterDescriptor, Long>()
+    private val rescaleTimes = ConcurrentHashMap<ClusterDescriptor, Long>()
+    private val pendingRescales = ConcurrentHashMap.newKeySet<ClusterDescriptor>()
+
+    fun forget(descriptor: ClusterDescriptor) {
+        scaleTimes.remove(descriptor)
+        rescaleTimes.remove(descriptor)
+        pendingRescales.remove(descriptor)
+    }
+
+    fun isRescalePending(descriptor: ClusterDescriptor) = pendingRescales.contains(descriptor)
+
+    fun requestRescale(descriptor: ClusterDescriptor) {
+        pendingRescales.add(descriptor)
+    }
+
+    // returns true when the job doesn't use more than the given number of slots, or when there is no job
+    fun release(descriptor: ClusterDescriptor, parallelism: Int): Boolean {
+        val load = loadOf(descriptor)
+
+        val jobId = load.jobId ?: return true
+
+        if (load.totalSlots - load.freeSlots <= parallelism) {
+            return true
+        }
+
+        rescale(descriptor, jobId, load, parallelism)
+
+        return false
+    }
+
+    fun rescalePending(descriptor: ClusterDescriptor, cluster: V1FlinkCluster) {
+        if (!pendingRescales.contains(descriptor)) {
+            return
+        }
+
+        val load = loadOf(descriptor)
+
+        val jobId = load.jobId
+
+        val parallelism = targetParallelismOf(cluster)
+
+        if (jobId == null || parallelism == 0 || load.totalSlots - load.freeSlots == parallelism) {
+            pendingRescales.remove(descriptor)
+
+            return
+        }
+
+        if (load.totalSlots >= parallelism) {
+            rescale(descriptor, jobId, load, parallelism)
+
+            pendingRescales.remove(descriptor)
+        }
+    }
+
+    fun autoscale(descriptor: ClusterDescriptor, cluster: V1FlinkCluster) {
+        val spec = cluster.spec
+
+        val replicas = spec.taskmanagerReplicas ?: 1
+        val taskSlots = spec.taskmanagerTaskSlots ?: 1
+        val minReplicas = spec.taskmanagerMinReplicas ?: 1
+        val maxReplicas = Math.max(spec.taskmanagerMaxReplicas ?: replicas, minReplicas)
+        val cooldown = (spec.taskmanagerScaleCooldown ?: 300) * 1000L
+
+        val load = loadOf(descriptor)
+
+        val jobId = load.jobId
+
+        if (jobId == null || load.taskManagers != replicas) {
+            return
+        }
+
+        val usedSlots = load.totalSlots - load.freeSlots
+
+        val timestamp = System.currentTimeMillis()
+
+        val targetReplicas = if (timestamp - (scaleTimes.get(descriptor) ?: 0L) < cooldown) {
+            replicas
+        } else {
+            requiredReplicas(load, usedSlots, taskSlots).coerceIn(minReplicas, maxReplicas)
+        }
+
+        val targetParallelism = targetReplicas * taskSlots
+
+        if (targetReplicas > replicas || (targetReplicas < replicas && usedSlots <= targetParallelism)) {
+            logger.info("Scaling cluster ${descriptor.name} from $replicas to $targetReplicas TaskManagers (used slots $usedSlots, cpu load ${load.cpuLoad}, backpressured ${load.backpressured})")
+
+            objectApi.patchNamespacedCustomObject(
+                "beta.nextbreakpoint.com",
+                "v1",
+                cluster.metadata.namespace,
+                "flinkclusters",
+                cluster.metadata.name,
+                mapOf("spec" to mapOf("taskmanagerReplicas" to targetReplicas))
+            )
+
+            scaleTimes.put(descriptor, timestamp)
+
+            return
+        }
+
+        if (usedSlots != targetParallelism && load.totalSlots >= targetParallelism) {
+            rescale(descriptor, jobId, load, targetParallelism)
+        }
+    }
+
+    // only the clusters with autoscaling use all the slots, the others don't exceed the parallelism of the resource
+    private fun targetParallelismOf(cluster: V1FlinkCluster): Int {
+        val slots = (cluster.spec.taskmanagerReplicas ?: 1) * (cluster.spec.taskmanagerTaskSlots ?: 1)
+
+        return if (cluster.spec.taskmanagerAutoscaling == true) slots else Math.min(slots, cluster.spec.sidecarParallelism ?: 1)
+    }
+
+    private fun rescale(descriptor: ClusterDescriptor, jobId: String, load: ClusterLoad, parallelism: Int) {
+        val timestamp = System.currentTimeMillis()
+
+        if (timestamp - (rescaleTimes.get(descriptor) ?: 0L) < rescaleInterval) {
+            return
+        }
+
+        logger.info("Rescaling job $jobId of cluster ${descriptor.name} from ${load.totalSlots - load.freeSlots} to $parallelism")
+
+        rescaleJob(descriptor, jobId, parallelism)
+
+        rescaleTimes.put(descriptor, timestamp)
+    }
+
+    private fun requiredReplicas(load: ClusterLoad, usedSlots: Int, taskSlots: Int): Int {
+        val cpuLoad = load.cpuLoad
+
+        val requiredSlots = when {
+            load.backpressured -> usedSlots + taskSlots
+            cpuLoad == null -> usedSlots
+            else -> Math.ceil(usedSlots * cpuLoad / targetCpuLoad).toInt()
+        }
+
+        return Math.max(1, (requiredSlots + taskSlots - 1) / taskSlots)
+    }
+}
@@ -0,0 +1,29 @@
+package com.nextbreakpoint.operator
+
+import java.util.concurrent.TimeUnit
+
+class TokenBucket(private val rate: Double, private val burst: Int) {
+    private val interval = (TimeUnit.SECONDS.toNanos(1) / rate).toLong()
+
+    private var nextFreeTime = System.nanoTime()
+
+    // returns the time waited in nanoseconds
+    fun acquire(): Long {
+        val delay = reserve()
+
+        if (delay > 0) {
+            TimeUnit.NANOSECONDS.sleep(delay)
+        }
+
+        return delay
+    }
+
+    @Synchronized
+    private fun reserve(): Long {
+        val timestamp = System.nanoTime()
+
+        nextFreeTime = Math.max(nextFreeTime, timestamp - interval * (burst - 1)) + interval
+
+        return Math.max(0, nextFreeTime - interval - timestamp)
+    }
+}
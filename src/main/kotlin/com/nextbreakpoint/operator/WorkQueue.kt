@@ -0,0 +1,78 @@
+package com.nextbreakpoint.operator
+
+import java.util.LinkedList
+import java.util.concurrent.Executors
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.locks.ReentrantLock
+import kotlin.concurrent.withLock
+
+class WorkQueue<K>(private val rateLimiter: RateLimiter<K>) {
+    private val lock = ReentrantLock()
+    private val available = lock.newCondition()
+    private val queue = LinkedList<K>()
+    private val pending = mutableSetOf<K>()
+    private val processing = mutableSetOf<K>()
+    private val queuedTimes = mutableMapOf<K, Long>()
+
+    val waitTime = DurationHistogram()
+
+    private val scheduler = Executors.newSingleThreadScheduledExecutor { runnable ->
+        val thread = Thread(runnable, "work-queue-scheduler")
+        thread.isDaemon = true
+        thread
+    }
+
+    fun add(key: K) {
+        lock.withLock {
+            if (pending.add(key) && !processing.contains(key)) {
+                queue.add(key)
+                queuedTimes.put(key, System.nanoTime())
+                available.signal()
+            }
+        }
+    }
+
+    fun addAfter(key: K, delay: Long) {
+        if (delay <= 0) {
+            add(key)
+        } else {
+            scheduler.schedule({ add(key) }, delay, TimeUnit.MILLISECONDS)
+        }
+    }
+
+    fun addRateLimited(key: K) = addAfter(key, rateLimiter.delayOf(key))
+
+    fun forget(key: K) = rateLimiter.forget(key)
+
+    fun take(timeout: Long, unit: TimeUnit): K? {
+        lock.withLock {
+            var nanos = unit.toNanos(timeout)
+
+            while (queue.isEmpty()) {
+                if (nanos <= 0) {
+                    return null
+                }
+                nanos = available.awaitNanos(nanos)
+            }
+
+            val key = queue.removeFirst()
+            pending.remove(key)
+            processing.add(key)
+            queuedTimes.remove(key)?.let { timestamp -> waitTime.update(System.nanoTime() - timestamp, TimeUnit.NANOSECONDS) }
+            return key
+        }
+    }
+
+    fun done(key: K) {
+        lock.withLock {
+            processing.remove(key)
+            if (pending.contains(key)) {
+                queue.add(key)
+                queuedTimes.put(key, System.nanoTime())
+                available.signal()
+            }
+        }
+    }
+
+    fun size() = lock.withLock { queue.size }
+}
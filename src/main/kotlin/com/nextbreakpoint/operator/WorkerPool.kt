@@ -0,0 +1,119 @@
+package com.nextbreakpoint.operator
+
+import com.codahale.metrics.Gauge
+import com.codahale.metrics.MetricRegistry
+import org.apache.log4j.Logger
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicInteger
+import java.util.concurrent.atomic.AtomicLong
+import kotlin.concurrent.thread
+
+class WorkerPool<K>(
+    private val name: String,
+    private val queue: WorkQueue<K>,
+    private val size: Int,
+    private val process: (K) -> Unit
+) {
+    companion object {
+        val logger = Logger.getLogger(WorkerPool::class.simpleName)
+    }
+
+    private val busyWorkers = AtomicInteger()
+    private val busyTime = AtomicLong()
+
+    // each start creates a new generation, so that workers of a stopped generation can't resume after a quick restart
+    private var generation: Generation? = null
+
+    @Synchronized
+    fun start() {
+        if (generation != null) {
+            return
+        }
+
+        val newGeneration = Generation()
+
+        newGeneration.workers = (1..size).map { index -> thread(name = "$name-worker-$index") { work(newGeneration) } }
+
+        generation = newGeneration
+    }
+
+    @Synchronized
+    fun stop(timeout: Long = 30000) {
+        val oldGeneration = generation ?: return
+
+        generation = null
+
+        oldGeneration.running = false
+
+        oldGeneration.workers.forEach { worker -> worker.interrupt() }
+
+        val deadline = System.currentTimeMillis() + timeout
+
+        oldGeneration.workers.forEach { worker -> worker.join(Math.max(deadline - System.currentTimeMillis(), 1)) }
+
+        oldGeneration.workers.filter { worker -> worker.isAlive }.forEach { worker -> logger.warn("Worker ${worker.name} didn't stop in time") }
+    }
+
+    fun registerMetrics(registry: MetricRegistry) {
+        registry.register(MetricRegistry.name(name, "queue", "depth"), Gauge<Int> { queue.size() })
+        registry.register(MetricRegistry.name(name, "queue", "wait"), queue.waitTime)
+        registry.register(MetricRegistry.name(name, "workers", "size"), Gauge<Int> { size })
+        registry.register(MetricRegistry.name(name, "workers", "busy"), Gauge<Int> { busyWorkers.get() })
+        registry.register(MetricRegistry.name(name, "workers", "utilization"), UtilizationGauge())
+    }
+
+    private fun work(generation: Generation) {
+        try {
+            while (generation.running && !Thread.currentThread().isInterrupted) {
+                val key = queue.take(60, TimeUnit.SECONDS) ?: continue
+
+                busyWorkers.incrementAndGet()
+
+                val timestamp = System.nanoTime()
+
+                try {
+                    process(key)
+
+                    queue.forget(key)
+                } catch (e: InterruptedException) {
+                    throw e
+                } catch (e: Exception) {
+                    logger.error("An error occurred while processing $key", e)
+
+                    queue.addRateLimited(key)
+                } finally {
+                    busyTime.addAndGet(System.nanoTime() - timestamp)
+
+                    busyWorkers.decrementAndGet()
+
+                    queue.done(key)
+                }
+            }
+        } catch (e: InterruptedException) {
+            logger.info("Worker ${Thread.currentThread().name} interrupted")
+        }
+    }
+
+    private class Generation {
+        @Volatile
+        var running = true
+
+        var workers = listOf<Thread>()
+    }
+
+    private inner class UtilizationGauge : Gauge<Double> {
+        private var lastTimestamp = System.nanoTime()
+        private var lastBusyTime = 0L
+
+        @Synchronized
+        override fun getValue(): Double {
+            val timestamp = System.nanoTime()
+            val currentBusyTime = busyTime.get()
+            val elapsed = (timestamp - lastTimestamp) * size
+            val utilization = if (elapsed > 0) (currentBusyTime - lastBusyTime).toDouble() / elapsed else 0.0
+            lastTimestamp = timestamp
+            lastBusyTime = currentBusyTime
+            return utilization
+        }
+    }
+}
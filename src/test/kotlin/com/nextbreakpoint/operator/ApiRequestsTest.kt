@@ -0,0 +1,51 @@
+package com.nextbreakpoint.operator
+
+import com.squareup.okhttp.MediaType
+import com.squareup.okhttp.Request
+import com.squareup.okhttp.RequestBody
+import kotlin.test.Test
+import kotlin.test.assertEquals
+
+class ApiRequestsTest {
+    private val body = RequestBody.create(MediaType.parse("application/json"), "{}")
+
+    @Test
+    fun `should classify reads`() {
+        assertEquals("list", ApiRequests.verbOf(request("GET", "/api/v1/namespaces/flink/pods")))
+        assertEquals("list", ApiRequests.verbOf(request("GET", "/api/v1/pods")))
+        assertEquals("get", ApiRequests.verbOf(request("GET", "/api/v1/namespaces/flink/pods/jobmanager-0")))
+        assertEquals("get", ApiRequests.verbOf(request("GET", "/api/v1/namespaces/flink")))
+        assertEquals("get", ApiRequests.verbOf(request("GET", "/apis/beta.nextbreakpoint.com/v1/namespaces/flink/flinkclusters/test/status")))
+    }
+
+    @Test
+    fun `should classify watches`() {
+        assertEquals("watch", ApiRequests.verbOf(request("GET", "/apis/apps/v1/namespaces/flink/statefulsets?watch=true&resourceVersion=10")))
+        assertEquals("list", ApiRequests.verbOf(request("GET", "/apis/apps/v1/namespaces/flink/statefulsets?watch=false")))
+    }
+
+    @Test
+    fun `should classify writes`() {
+        assertEquals("create", ApiRequests.verbOf(request("POST", "/api/v1/namespaces/flink/services")))
+        assertEquals("update", ApiRequests.verbOf(request("PUT", "/apis/coordination.k8s.io/v1beta1/namespaces/flink/leases/flink-operator")))
+        assertEquals("patch", ApiRequests.verbOf(request("PATCH", "/apis/apps/v1/namespaces/flink/statefulsets/taskmanager/scale")))
+        assertEquals("delete", ApiRequests.verbOf(request("DELETE", "/api/v1/namespaces/flink/configmaps/flink-cluster-test-test")))
+        assertEquals("deletecollection", ApiRequests.verbOf(request("DELETE", "/api/v1/namespaces/flink/persistentvolumeclaims?labelSelector=cluster%3Dtest")))
+    }
+
+    @Test
+    fun `should extract the resource`() {
+        assertEquals("pods", ApiRequests.resourceOf(request("GET", "/api/v1/namespaces/flink/pods")))
+        assertEquals("pods", ApiRequests.resourceOf(request("GET", "/api/v1/pods")))
+        assertEquals("pods", ApiRequests.resourceOf(request("GET", "/api/v1/namespaces/flink/pods/jobmanager-0")))
+        assertEquals("namespaces", ApiRequests.resourceOf(request("GET", "/api/v1/namespaces/flink")))
+        assertEquals("statefulsets/scale", ApiRequests.resourceOf(request("PATCH", "/apis/apps/v1/namespaces/flink/statefulsets/taskmanager/scale")))
+        assertEquals("flinkclusters/status", ApiRequests.resourceOf(request("PATCH", "/apis/beta.nextbreakpoint.com/v1/namespaces/flink/flinkclusters/test/status")))
+        assertEquals("unknown", ApiRequests.resourceOf(request("GET", "/version")))
+    }
+
+    private fun request(method: String, path: String) = Request.Builder()
+        .url("https://kubernetes:443$path")
+        .method(method, if (method == "GET" || method == "DELETE") null else body)
+        .build()
+}
@@ -0,0 +1,62 @@
+package com.nextbreakpoint.operator
+
+import kotlin.test.Test
+import kotlin.test.assertEquals
+import kotlin.test.assertNull
+import kotlin.test.assertTrue
+
+class ConsistentHashRingTest {
+    private val keys = (0 until 1000).map { "default/cluster-$it/test" }
+
+    @Test
+    fun `should not have owners when there are no members`() {
+        assertNull(ConsistentHashRing(setOf()).ownerOf("default/cluster/test"))
+    }
+
+    @Test
+    fun `should assign all keys to the only member`() {
+        val ring = ConsistentHashRing(setOf("a"))
+
+        assertTrue(keys.all { ring.ownerOf(it) == "a" })
+    }
+
+    @Test
+    fun `should assign the same owner on every replica`() {
+        val ring1 = ConsistentHashRing(setOf("a", "b", "c"))
+        val ring2 = ConsistentHashRing(setOf("c", "b", "a"))
+
+        assertTrue(keys.all { ring1.ownerOf(it) == ring2.ownerOf(it) })
+    }
+
+    @Test
+    fun `should spread the keys among the members`() {
+        val ring = ConsistentHashRing(setOf("a", "b", "c"))
+
+        val counts = keys.groupingBy { ring.ownerOf(it) }.eachCount()
+
+        assertEquals(setOf("a", "b", "c"), counts.keys)
+        assertTrue(counts.values.all { it > 200 })
+    }
+
+    @Test
+    fun `should move only the keys of the new member when a member joins`() {
+        val oldRing = ConsistentHashRing(setOf("a", "b"))
+        val newRing = ConsistentHashRing(setOf("a", "b", "c"))
+
+        val moved = keys.filter { oldRing.ownerOf(it) != newRing.ownerOf(it) }
+
+        assertTrue(moved.isNotEmpty())
+        assertTrue(moved.all { newRing.ownerOf(it) == "c" })
+    }
+
+    @Test
+    fun `should move only the keys of the old member when a member leaves`() {
+        val oldRing = ConsistentHashRing(setOf("a", "b", "c"))
+        val newRing = ConsistentHashRing(setOf("a", "b"))
+
+        val moved = keys.filter { oldRing.ownerOf(it) != newRing.ownerOf(it) }
+
+        assertTrue(moved.isNotEmpty())
+        assertTrue(moved.all { oldRing.ownerOf(it) == "c" })
+    }
+}
@@ -0,0 +1,55 @@
+package com.nextbreakpoint.operator
+
+import kotlin.test.Test
+import kotlin.test.assertEquals
+import kotlin.test.assertTrue
+
+class ExponentialBackoffRateLimiterTest {
+    @Test
+    fun `should double the delay after each failure`() {
+        val rateLimiter = ExponentialBackoffRateLimiter<String>(100L, 1000L, 0.0)
+
+        assertEquals(100, rateLimiter.delayOf("a"))
+        assertEquals(200, rateLimiter.delayOf("a"))
+        assertEquals(400, rateLimiter.delayOf("a"))
+        assertEquals(800, rateLimiter.delayOf("a"))
+        assertEquals(1000, rateLimiter.delayOf("a"))
+    }
+
+    @Test
+    fun `should not overflow after many failures`() {
+        val rateLimiter = ExponentialBackoffRateLimiter<String>(100L, 1000L, 0.0)
+
+        repeat(100) { assertTrue(rateLimiter.delayOf("a") in 100..1000) }
+    }
+
+    @Test
+    fun `should count failures per key`() {
+        val rateLimiter = ExponentialBackoffRateLimiter<String>(100L, 1000L, 0.0)
+
+        rateLimiter.delayOf("a")
+        rateLimiter.delayOf("a")
+
+        assertEquals(100, rateLimiter.delayOf("b"))
+    }
+
+    @Test
+    fun `should reset the delay when the key is forgotten`() {
+        val rateLimiter = ExponentialBackoffRateLimiter<String>(100L, 1000L, 0.0)
+
+        rateLimiter.delayOf("a")
+        rateLimiter.delayOf("a")
+        rateLimiter.forget("a")
+
+        assertEquals(100, rateLimiter.delayOf("a"))
+    }
+
+    @Test
+    fun `should add jitter up to the configured fraction`() {
+        val rateLimiter = ExponentialBackoffRateLimiter<String>(100L, 1000L, 0.2)
+
+        repeat(100) { index ->
+            assertTrue(rateLimiter.delayOf("$index") in 100..120)
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package com.nextbreakpoint.operator
+
+import com.squareup.okhttp.mockwebserver.Dispatcher
+import com.squareup.okhttp.mockwebserver.MockResponse
+import com.squareup.okhttp.mockwebserver.MockWebServer
+import com.squareup.okhttp.mockwebserver.RecordedRequest
+import io.kubernetes.client.ApiClient
+import io.kubernetes.client.apis.CoordinationV1beta1Api
+import org.junit.After
+import org.junit.Before
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicInteger
+import kotlin.concurrent.thread
+import kotlin.test.Test
+import kotlin.test.assertEquals
+import kotlin.test.assertFalse
+import kotlin.test.assertTrue
+
+class LeaderElectorTest {
+    private val server = MockWebServer()
+
+    private val started = CountDownLatch(1)
+
+    private val stopped = CountDownLatch(1)
+
+    private val replaced = AtomicInteger()
+
+    @Volatile
+    private var holder: String? = null
+
+    @Volatile
+    private var available = true
+
+    private var elector: LeaderElector? = null
+
+    private var runner: Thread? = null
+
+    @Before
+    fun setup() {
+        server.setDispatcher(object : Dispatcher() {
+            override fun dispatch(request: RecordedRequest): MockResponse {
+                if (!available) {
+                    return MockResponse().setResponseCode(500)
+                }
+
+                return when (request.method) {
+                    "GET" -> holder?.let { leaseResponse(200, it) } ?: MockResponse().setResponseCode(404).setBody("{}")
+                    "POST" -> {
+                        holder = "me"
+                        leaseResponse(201, "me")
+                    }
+                    "PUT" -> {
+                        replaced.incrementAndGet()
+                        holder = "me"
+                        leaseResponse(200, "me")
+                    }
+                    else -> MockResponse().setResponseCode(405)
+                }
+            }
+        })
+
+        server.start()
+    }
+
+    @After
+    fun teardown() {
+        runner?.interrupt()
+        runner?.join(5000)
+        server.shutdown()
+    }
+
+    @Test
+    fun `should create the lease when it doesn't exist`() {
+        start()
+
+        assertTrue(started.await(5, TimeUnit.SECONDS))
+        assertTrue(elector?.isLeader == true)
+        assertEquals("me", holder)
+    }
+
+    @Test
+    fun `should renew the lease while leading`() {
+        holder = "me"
+
+        start()
+
+        assertTrue(started.await(5, TimeUnit.SECONDS))
+
+        val count = replaced.get()
+
+        Thread.sleep(500)
+
+        assertTrue(replaced.get() > count)
+        assertEquals(1, stopped.count)
+    }
+
+    @Test
+    fun `should not acquire the lease while another replica holds it`() {
+        holder = "other"
+
+        start()
+
+        assertFalse(started.await(1, TimeUnit.SECONDS))
+        assertFalse(elector?.isLeader == true)
+        assertEquals(0, replaced.get())
+    }
+
+    @Test
+    fun `should stop leading when the lease can't be renewed before the deadline`() {
+        start()
+
+        assertTrue(started.await(5, TimeUnit.SECONDS))
+
+        available = false
+
+        assertTrue(stopped.await(5, TimeUnit.SECONDS))
+        assertFalse(elector?.isLeader == true)
+    }
+
+    private fun start() {
+        val client = ApiClient().setBasePath(server.url("/").toString().removeSuffix("/"))
+
+        val elector = LeaderElector(
+            namespace = "default",
+            name = "flink-operator",
+            identity = "me",
+            onStartedLeading = { started.countDown() },
+            onStoppedLeading = { stopped.countDown() },
+            leaseDuration = 15000,
+            renewDeadline = 500,
+            retryPeriod = 100,
+            api = CoordinationV1beta1Api(client)
+        )
+
+        this.elector = elector
+
+        // the elector stops when the thread is interrupted while sleeping
+        runner = thread {
+            try {
+                elector.run()
+            } catch (e: InterruptedException) {
+            }
+        }
+    }
+
+    private fun leaseResponse(code: Int, holder: String) = MockResponse()
+        .setResponseCode(code)
+        .setHeader("content-type", "application/json")
+        .setBody("{\"apiVersion\":\"coordination.k8s.io/v1beta1\",\"kind\":\"Lease\",\"metadata\":{\"name\":\"flink-operator\",\"namespace\":\"default\"},\"spec\":{\"holderIdentity\":\"$holder\",\"leaseDurationSeconds\":15,\"leaseTransitions\":0}}")
+}
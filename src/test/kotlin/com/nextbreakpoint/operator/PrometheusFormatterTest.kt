@@ -0,0 +1,83 @@
+package com.nextbreakpoint.operator
+
+import com.codahale.metrics.Gauge
+import com.codahale.metrics.MetricRegistry
+import java.util.concurrent.TimeUnit
+import kotlin.test.Test
+import kotlin.test.assertEquals
+import kotlin.test.assertTrue
+
+class PrometheusFormatterTest {
+    private val registry = MetricRegistry()
+
+    @Test
+    fun `should format gauges`() {
+        registry.register("queue.size", Gauge<Int> { 3 })
+        registry.register("leader", Gauge<Boolean> { true })
+
+        assertEquals(
+            "# TYPE flink_operator_leader gauge\n" +
+            "flink_operator_leader 1.0\n" +
+            "# TYPE flink_operator_queue_size gauge\n" +
+            "flink_operator_queue_size 3.0\n",
+            PrometheusFormatter.format(registry)
+        )
+    }
+
+    @Test
+    fun `should group metrics with labels in one family`() {
+        registry.meter(OperatorMetrics.name("api.requests", "verb" to "get", "resource" to "pods")).mark(2)
+        registry.meter(OperatorMetrics.name("api.requests", "verb" to "list", "resource" to "pods")).mark()
+
+        val output = PrometheusFormatter.format(registry)
+
+        assertEquals(1, output.lines().count { it == "# TYPE flink_operator_api_requests_total counter" })
+        assertTrue(output.contains("flink_operator_api_requests_total{verb=\"get\",resource=\"pods\"} 2.0\n"))
+        assertTrue(output.contains("flink_operator_api_requests_total{verb=\"list\",resource=\"pods\"} 1.0\n"))
+    }
+
+    @Test
+    fun `should escape label values`() {
+        registry.meter(OperatorMetrics.name("events", "reason" to "a\"b")).mark()
+
+        assertTrue(PrometheusFormatter.format(registry).contains("flink_operator_events_total{reason=\"a\\\"b\"} 1.0\n"))
+    }
+
+    @Test
+    fun `should format counters with the total suffix`() {
+        registry.counter(OperatorMetrics.name("watch.restarts", "kind" to "Pod")).inc(3)
+
+        assertEquals(
+            "# TYPE flink_operator_watch_restarts_total counter\n" +
+            "flink_operator_watch_restarts_total{kind=\"Pod\"} 3.0\n",
+            PrometheusFormatter.format(registry)
+        )
+    }
+
+    @Test
+    fun `should format durations as cumulative histograms in seconds`() {
+        val histogram = OperatorMetrics.durations(OperatorMetrics.name("reconcile.duration", "cluster" to "test"), registry)
+
+        histogram.update(20, TimeUnit.MILLISECONDS)
+        histogram.update(2, TimeUnit.SECONDS)
+        histogram.update(90, TimeUnit.SECONDS)
+
+        val output = PrometheusFormatter.format(registry)
+
+        assertTrue(output.contains("# TYPE flink_operator_reconcile_duration histogram\n"))
+        assertTrue(output.contains("flink_operator_reconcile_duration_bucket{cluster=\"test\",le=\"0.01\"} 0.0\n"))
+        assertTrue(output.contains("flink_operator_reconcile_duration_bucket{cluster=\"test\",le=\"0.025\"} 1.0\n"))
+        assertTrue(output.contains("flink_operator_reconcile_duration_bucket{cluster=\"test\",le=\"2.5\"} 2.0\n"))
+        assertTrue(output.contains("flink_operator_reconcile_duration_bucket{cluster=\"test\",le=\"60.0\"} 2.0\n"))
+        assertTrue(output.contains("flink_operator_reconcile_duration_bucket{cluster=\"test\",le=\"+Inf\"} 3.0\n"))
+        assertTrue(output.contains("flink_operator_reconcile_duration_sum{cluster=\"test\"} 92.02\n"))
+        assertTrue(output.contains("flink_operator_reconcile_duration_count{cluster=\"test\"} 3.0\n"))
+    }
+
+    @Test
+    fun `should return the same histogram for the same name`() {
+        val histogram = OperatorMetrics.durations("queue.wait", registry)
+
+        assertTrue(histogram === OperatorMetrics.durations("queue.wait", registry))
+    }
+}
@@ -0,0 +1,78 @@
+package com.nextbreakpoint.operator
+
+import com.google.gson.JsonArray
+import io.kubernetes.client.JSON
+import io.kubernetes.client.models.V1ConfigMap
+import io.kubernetes.client.models.V1ObjectMeta
+import kotlin.test.Test
+import kotlin.test.assertEquals
+
+class ResourceInformerTest {
+    private val gson = JSON().gson
+
+    private val events = mutableListOf<String>()
+
+    private val informer = ResourceInformer<V1ConfigMap, V1ConfigMap>(
+        kind = "ConfigMap",
+        listResources = { throw UnsupportedOperationException() },
+        watchResources = { throw UnsupportedOperationException() },
+        projectionOf = { it },
+        projectionClass = V1ConfigMap::class.java,
+        metadataOf = { it.metadata },
+        handler = object : ResourceEventHandler<V1ConfigMap> {
+            override fun onAdd(resource: V1ConfigMap) {
+                events.add("add ${resource.metadata.name}")
+            }
+
+            override fun onUpdate(oldResource: V1ConfigMap, newResource: V1ConfigMap) {
+                events.add("update ${newResource.metadata.name}")
+            }
+
+            override fun onDelete(resource: V1ConfigMap) {
+                events.add("delete ${resource.metadata.name}")
+            }
+        }
+    )
+
+    @Test
+    fun `should add all resources to an empty store`() {
+        informer.restore(gson, snapshotOf("1", configMap("a", "1"), configMap("b", "1")))
+
+        assertEquals(listOf("add a", "add b"), events.sorted())
+        assertEquals(2, informer.store.list().size)
+    }
+
+    @Test
+    fun `should notify only the resources which changed`() {
+        informer.restore(gson, snapshotOf("1", configMap("a", "1"), configMap("b", "1"), configMap("c", "1")))
+
+        events.clear()
+
+        informer.restore(gson, snapshotOf("2", configMap("a", "1"), configMap("b", "2"), configMap("d", "2")))
+
+        assertEquals(listOf("add d", "delete c", "update b"), events.sorted())
+        assertEquals(setOf("default/a", "default/b", "default/d"), informer.store.keys())
+        assertEquals("2", informer.store.get("default", "b")?.metadata?.resourceVersion)
+    }
+
+    @Test
+    fun `should return the restored version in the snapshot`() {
+        informer.restore(gson, snapshotOf("5", configMap("a", "5")))
+
+        val snapshot = informer.snapshot(gson)
+
+        assertEquals("5", snapshot?.resourceVersion)
+        assertEquals(1, snapshot?.resources?.size())
+    }
+
+    private fun configMap(name: String, resourceVersion: String) = V1ConfigMap()
+        .metadata(V1ObjectMeta().namespace("default").name(name).resourceVersion(resourceVersion))
+
+    private fun snapshotOf(resourceVersion: String, vararg resources: V1ConfigMap): InformerSnapshot {
+        val array = JsonArray()
+
+        resources.forEach { array.add(gson.toJsonTree(it, V1ConfigMap::class.java)) }
+
+        return InformerSnapshot(resourceVersion, array)
+    }
+}
@@ -0,0 +1,78 @@
+package com.nextbreakpoint.operator
+
+import com.nextbreakpoint.model.ClusterDescriptor
+import com.nextbreakpoint.model.ClusterLoad
+import com.nextbreakpoint.model.V1FlinkCluster
+import com.nextbreakpoint.model.V1FlinkClusterSpec
+import io.kubernetes.client.apis.CustomObjectsApi
+import io.kubernetes.client.models.V1ObjectMeta
+import kotlin.test.Test
+import kotlin.test.assertEquals
+import kotlin.test.assertFalse
+
+class TaskManagerAutoscalerTest {
+    private val descriptor = ClusterDescriptor(namespace = "default", name = "test", environment = "test")
+
+    private val rescales = mutableListOf<Int>()
+
+    private var load = ClusterLoad(jobId = "1", taskManagers = 4, totalSlots = 8, freeSlots = 6, cpuLoad = null, backpressured = false)
+
+    private val autoscaler = TaskManagerAutoscaler(
+        CustomObjectsApi(),
+        { load },
+        { _, _, parallelism -> rescales.add(parallelism) }
+    )
+
+    @Test
+    fun `should rescale the job up to the parallelism of the resource`() {
+        autoscaler.requestRescale(descriptor)
+
+        autoscaler.rescalePending(descriptor, cluster(autoscaling = false, parallelism = 4))
+
+        assertEquals(listOf(4), rescales)
+        assertFalse(autoscaler.isRescalePending(descriptor))
+    }
+
+    @Test
+    fun `should not rescale the job when it already runs with the parallelism of the resource`() {
+        load = load.copy(freeSlots = 4)
+
+        autoscaler.requestRescale(descriptor)
+
+        autoscaler.rescalePending(descriptor, cluster(autoscaling = false, parallelism = 4))
+
+        assertEquals(listOf<Int>(), rescales)
+        assertFalse(autoscaler.isRescalePending(descriptor))
+    }
+
+    @Test
+    fun `should rescale the job to use all the slots when autoscaling`() {
+        autoscaler.requestRescale(descriptor)
+
+        autoscaler.rescalePending(descriptor, cluster(autoscaling = true, parallelism = 4))
+
+        assertEquals(listOf(8), rescales)
+    }
+
+    @Test
+    fun `should wait for the new TaskManagers before rescaling`() {
+        load = load.copy(taskManagers = 2, totalSlots = 4, freeSlots = 2)
+
+        autoscaler.requestRescale(descriptor)
+
+        autoscaler.rescalePending(descriptor, cluster(autoscaling = true, parallelism = 4))
+
+        assertEquals(listOf<Int>(), rescales)
+        assertEquals(true, autoscaler.isRescalePending(descriptor))
+    }
+
+    private fun cluster(autoscaling: Boolean, parallelism: Int) = V1FlinkCluster().apply {
+        setMetadata(V1ObjectMeta().namespace("default").name("test"))
+        setSpec(V1FlinkClusterSpec().apply {
+            setTaskmanagerReplicas(4)
+            setTaskmanagerTaskSlots(2)
+            setTaskmanagerAutoscaling(autoscaling)
+            setSidecarParallelism(parallelism)
+        })
+    }
+}
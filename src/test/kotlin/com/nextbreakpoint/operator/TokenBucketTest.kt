@@ -0,0 +1,44 @@
+package com.nextbreakpoint.operator
+
+import java.util.concurrent.TimeUnit
+import kotlin.test.Test
+import kotlin.test.assertEquals
+import kotlin.test.assertTrue
+
+class TokenBucketTest {
+    @Test
+    fun `should not wait while there are tokens in the bucket`() {
+        val bucket = TokenBucket(10.0, 3)
+
+        Thread.sleep(400)
+
+        assertEquals(0, bucket.acquire())
+        assertEquals(0, bucket.acquire())
+        assertEquals(0, bucket.acquire())
+    }
+
+    @Test
+    fun `should wait when the bucket is empty`() {
+        val bucket = TokenBucket(10.0, 3)
+
+        Thread.sleep(400)
+
+        repeat(3) { bucket.acquire() }
+
+        val delay = bucket.acquire()
+
+        assertTrue(delay > 0)
+        assertTrue(delay <= TimeUnit.MILLISECONDS.toNanos(100))
+    }
+
+    @Test
+    fun `should not accumulate more tokens than the burst size`() {
+        val bucket = TokenBucket(10.0, 2)
+
+        Thread.sleep(1000)
+
+        assertEquals(0, bucket.acquire())
+        assertEquals(0, bucket.acquire())
+        assertTrue(bucket.acquire() > 0)
+    }
+}
@@ -0,0 +1,67 @@
+package com.nextbreakpoint.operator
+
+import java.util.concurrent.TimeUnit
+import kotlin.test.Test
+import kotlin.test.assertEquals
+import kotlin.test.assertNull
+
+class WorkQueueTest {
+    private val queue = WorkQueue<String>(ExponentialBackoffRateLimiter(10L, 100L))
+
+    @Test
+    fun `should add a key only once while it is pending`() {
+        queue.add("a")
+        queue.add("a")
+        queue.add("b")
+
+        assertEquals(2, queue.size())
+        assertEquals("a", queue.take(0, TimeUnit.MILLISECONDS))
+        assertEquals("b", queue.take(0, TimeUnit.MILLISECONDS))
+        assertNull(queue.take(0, TimeUnit.MILLISECONDS))
+    }
+
+    @Test
+    fun `should not return a key while it is processed`() {
+        queue.add("a")
+
+        assertEquals("a", queue.take(0, TimeUnit.MILLISECONDS))
+
+        queue.add("a")
+        queue.add("a")
+
+        assertNull(queue.take(0, TimeUnit.MILLISECONDS))
+
+        queue.done("a")
+
+        assertEquals("a", queue.take(0, TimeUnit.MILLISECONDS))
+
+        queue.done("a")
+
+        assertNull(queue.take(0, TimeUnit.MILLISECONDS))
+    }
+
+    @Test
+    fun `should add a key after the delay`() {
+        queue.addAfter("a", 200)
+
+        assertNull(queue.take(0, TimeUnit.MILLISECONDS))
+        assertEquals("a", queue.take(5, TimeUnit.SECONDS))
+    }
+
+    @Test
+    fun `should add a key immediately when the delay is not positive`() {
+        queue.addAfter("a", 0)
+
+        assertEquals("a", queue.take(0, TimeUnit.MILLISECONDS))
+    }
+
+    @Test
+    fun `should record the time spent in the queue`() {
+        queue.add("a")
+        queue.add("b")
+
+        queue.take(0, TimeUnit.MILLISECONDS)
+
+        assertEquals(1, queue.waitTime.count)
+    }
+}